@@ -0,0 +1,88 @@
+#!/usr/bin/env bash
+#
+# Measures time-to-first-request (process launch -> first 200 on /) for each
+# startup mode that has been built:
+#
+#   jar      ./mvnw package                  plain fat jar
+#   aot      ./mvnw -Paot package            fat jar started with -Dspring.aot.enabled=true
+#   cds      ./mvnw -Pcds package            extracted jar + CDS archive (target/cds)
+#   aot-cds  ./mvnw -Paot,cds package        both of the above
+#   native   ./mvnw -Pnative native:compile  GraalVM native executable
+#
+# Usage: scripts/startup-benchmark.sh [runs] [modes...]
+#   e.g. scripts/startup-benchmark.sh 5 jar cds
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${1:-5}
+shift || true
+MODES=${*:-"jar aot cds aot-cds native"}
+PORT=${PORT:-18080}
+PROFILE=${PROFILE:-prod}
+TIMEOUT_S=${TIMEOUT_S:-60}
+
+JAR=target/d13revision-0.0.1-SNAPSHOT.jar
+CDS_DIR=target/cds
+NATIVE=target/d13revision
+
+now_ms() { date +%s%3N; }
+
+aot_built() {
+    [[ $(unzip -l "$JAR" 2>/dev/null) == *__ApplicationContextInitializer* ]]
+}
+
+command_for() {
+    local args="--server.port=$PORT --spring.profiles.active=$PROFILE"
+    case "$1" in
+        jar)     [[ -f $JAR ]] && echo "java -jar $JAR $args" ;;
+        aot)     [[ -f $JAR ]] && aot_built && echo "java -Dspring.aot.enabled=true -jar $JAR $args" ;;
+        cds)     [[ -f $CDS_DIR/application.jsa ]] && ! aot_built &&
+                     echo "java -XX:SharedArchiveFile=$CDS_DIR/application.jsa -jar $CDS_DIR/$(basename $JAR) $args" ;;
+        aot-cds) [[ -f $CDS_DIR/application.jsa ]] && aot_built &&
+                     echo "java -XX:SharedArchiveFile=$CDS_DIR/application.jsa -Dspring.aot.enabled=true -jar $CDS_DIR/$(basename $JAR) $args" ;;
+        native)  [[ -x $NATIVE ]] && echo "$NATIVE $args" ;;
+    esac
+}
+
+time_first_request() {
+    local cmd=$1 start pid elapsed=""
+    start=$(now_ms)
+    $cmd > target/startup-benchmark.log 2>&1 &
+    pid=$!
+    while (( $(now_ms) - start < TIMEOUT_S * 1000 )); do
+        if curl -fs -o /dev/null "http://localhost:$PORT/"; then
+            elapsed=$(( $(now_ms) - start ))
+            break
+        fi
+        kill -0 $pid 2>/dev/null || break
+        sleep 0.02
+    done
+    kill $pid 2>/dev/null || true
+    wait $pid 2>/dev/null || true
+    echo "${elapsed:-timeout}"
+}
+
+printf '%-8s %8s %8s %8s  %s\n' mode min median max 'runs (ms)'
+for mode in $MODES; do
+    cmd=$(command_for "$mode" || true)
+    if [[ -z $cmd ]]; then
+        printf '%-8s %8s\n' "$mode" "not built"
+        continue
+    fi
+    samples=()
+    for _ in $(seq "$RUNS"); do
+        samples+=("$(time_first_request "$cmd")")
+    done
+    sorted=$(printf '%s\n' "${samples[@]}" | grep -v timeout | sort -n || true)
+    if [[ -z $sorted ]]; then
+        printf '%-8s %8s\n' "$mode" "timeout"
+        continue
+    fi
+    count=$(wc -l <<< "$sorted")
+    min=$(head -1 <<< "$sorted")
+    max=$(tail -1 <<< "$sorted")
+    median=$(sed -n "$(( (count + 1) / 2 ))p" <<< "$sorted")
+    printf '%-8s %8s %8s %8s  %s\n' "$mode" "$min" "$median" "$max" "${samples[*]}"
+done
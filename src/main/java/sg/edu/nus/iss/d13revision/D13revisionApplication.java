@@ -7,9 +7,13 @@ import org.springframework.boot.*;
 import java.util.Collections;
 
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.web.filter.CommonsRequestLoggingFilter;
 
+import sg.edu.nus.iss.d13revision.config.NativeRuntimeHints;
+
 @SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
 public class D13revisionApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,270 @@
+package sg.edu.nus.iss.d13revision.config;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.observation.ObservationPredicate;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Drives the read paths through the running server until the JIT has
+ * compiled them, so the first real requests don't pay for interpretation.
+ *
+ * Runs as an ApplicationRunner: the server already accepts connections, but
+ * readiness only switches to ACCEPTING_TRAFFIC once every runner is done, so
+ * /readyz keeps the pod out of the load balancer meanwhile. Requests are
+ * read-only (JSON, Smile and CBOR person lists, the Thymeleaf pages, nations
+ * and currencies) and repeat in rounds. Compilation counts as settled once
+ * the JIT spends less than warmup.settle-threshold of a window compiling for
+ * warmup.settle-windows windows in a row; warmup.max-duration caps the lot.
+ *
+ * Warm-up requests carry the X-Warmup header set to {@link #TOKEN}, drawn at
+ * random when the process starts. Requests with the token are kept out of the
+ * server observation (no http.server.requests samples or spans) and out of
+ * the route latency recorder, so the metrics start with real traffic. The
+ * remote address proves nothing (behind a sidecar proxy every client is on
+ * loopback), so only the token does.
+ */
+@Component
+@ConditionalOnProperty(name = "warmup.enabled", havingValue = "true")
+@Order(10)
+@Slf4j
+public class JitWarmup implements ApplicationRunner {
+
+    public static final String HEADER = "X-Warmup";
+
+    /** Known only inside this process, so outside traffic cannot pass as warm-up. */
+    public static final String TOKEN = newToken();
+
+    @Autowired
+    private Environment env;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Value("${warmup.max-duration:60s}")
+    private Duration maxDuration;
+
+    @Value("${warmup.window:1s}")
+    private Duration window;
+
+    @Value("${warmup.threads:2}")
+    private int threads;
+
+    // share of a window spent compiling below which the JIT is considered done
+    @Value("${warmup.settle-threshold:0.02}")
+    private double settleThreshold;
+
+    @Value("${warmup.settle-windows:3}")
+    private int settleWindows;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder windowNanos = new LongAdder();
+    private final LongAdder windowCount = new LongAdder();
+    private volatile boolean running;
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        String port = env.getProperty("local.server.port");
+        if (port == null) {
+            log.info("No local web server, skipping JIT warm-up");
+            return;
+        }
+        String base = "http://localhost:" + port + env.getProperty("server.servlet.context-path", "");
+        List<HttpRequest> paths = requests(base);
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        CompilationMXBean jit = ManagementFactory.getCompilationMXBean();
+        boolean canMeasure = jit != null && jit.isCompilationTimeMonitoringSupported();
+
+        long start = System.nanoTime();
+        long compileStart = canMeasure ? jit.getTotalCompilationTime() : 0;
+        running = true;
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread t = new Thread(() -> drive(client, paths), "jit-warmup-" + i);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+
+        double firstLatency = -1;
+        double lastLatency = 0;
+        int quietWindows = 0;
+        boolean settled = false;
+        long lastCompile = compileStart;
+        long deadline = start + maxDuration.toNanos();
+        try {
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(window.toMillis());
+                long count = windowCount.sumThenReset();
+                long nanos = windowNanos.sumThenReset();
+                if (count > 0) {
+                    double mean = nanos / 1e6 / count;
+                    if (firstLatency < 0) {
+                        firstLatency = mean;
+                    }
+                    lastLatency = mean;
+                }
+
+                if (canMeasure) {
+                    long compile = jit.getTotalCompilationTime();
+                    double busy = (double) (compile - lastCompile) / window.toMillis();
+                    lastCompile = compile;
+                    quietWindows = busy < settleThreshold ? quietWindows + 1 : 0;
+                    log.debug("Warm-up window: {} requests, JIT busy {}%", count,
+                            String.format("%.1f", busy * 100));
+                    if (quietWindows >= settleWindows) {
+                        settled = true;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            running = false;
+            for (Thread t : workers) {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        firstLatency = Math.max(firstLatency, 0);
+        long compiled = canMeasure ? jit.getTotalCompilationTime() - compileStart : -1;
+        report(elapsed, compiled, settled, firstLatency, lastLatency);
+        log.info("JIT warm-up {} after {} ms and {} requests; mean latency {} ms -> {} ms, {} ms compiling",
+                settled ? "settled" : "hit its time budget", TimeUnit.NANOSECONDS.toMillis(elapsed), requests.sum(),
+                String.format("%.2f", firstLatency), String.format("%.2f", lastLatency), compiled);
+    }
+
+    @Bean
+    public ObservationPredicate skipWarmupObservations() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && isWarmupRequest(request.getCarrier()));
+    }
+
+    /** Sent by this process's own warm-up, which alone knows the token. */
+    public static boolean isWarmupRequest(HttpServletRequest request) {
+        String token = request.getHeader(HEADER);
+        return token != null && MessageDigest.isEqual(TOKEN.getBytes(StandardCharsets.US_ASCII),
+                token.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[16];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    private void drive(HttpClient client, List<HttpRequest> paths) {
+        while (running) {
+            for (HttpRequest request : paths) {
+                if (!running) {
+                    return;
+                }
+                long t0 = System.nanoTime();
+                try {
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.debug("Warm-up request to {} failed: {}", request.uri(), e.toString());
+                    continue;
+                }
+                windowNanos.add(System.nanoTime() - t0);
+                windowCount.increment();
+                requests.increment();
+            }
+        }
+    }
+
+    private void report(long elapsedNanos, long compiledMillis, boolean settled, double firstMs, double lastMs) {
+        TimeGauge.builder("warmup.duration", () -> elapsedNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent warming up before reporting ready")
+                .register(registry);
+        Gauge.builder("warmup.requests", requests, LongAdder::sum)
+                .description("Synthetic requests sent during warm-up")
+                .register(registry);
+        Gauge.builder("warmup.settled", () -> settled ? 1 : 0)
+                .description("1 if JIT compilation settled, 0 if the time budget ran out first")
+                .register(registry);
+        if (compiledMillis >= 0) {
+            TimeGauge.builder("warmup.compilation", () -> compiledMillis, TimeUnit.MILLISECONDS)
+                    .description("JIT compilation time spent during warm-up")
+                    .register(registry);
+        }
+        TimeGauge.builder("warmup.request.latency", () -> firstMs, TimeUnit.MILLISECONDS)
+                .description("Mean warm-up request latency in the first and last window")
+                .tag("window", "first")
+                .register(registry);
+        TimeGauge.builder("warmup.request.latency", () -> lastMs, TimeUnit.MILLISECONDS)
+                .description("Mean warm-up request latency in the first and last window")
+                .tag("window", "last")
+                .register(registry);
+    }
+
+    /**
+     * Read-only requests only: warm-up must not change the store. Export is left
+     * out: each call streams the whole store and, under write-behind, flushes it.
+     */
+    private static List<HttpRequest> requests(String base) {
+        List<HttpRequest> requests = new ArrayList<>();
+        requests.add(get(base + "/person/testRetrieve", "application/json", "gzip"));
+        requests.add(get(base + "/person/testRetrieve?fields=firstName,lastName", "application/json", "identity"));
+        requests.add(get(base + "/person/testRetrieve", "application/x-jackson-smile", "identity"));
+        requests.add(get(base + "/person/testRetrieve", "application/cbor", "identity"));
+        requests.add(get(base + "/person/testRetrieve?offset=0&limit=10", "application/json", "identity"));
+        requests.add(get(base + "/person/personList", "text/html", "gzip"));
+        requests.add(get(base + "/person/index", "text/html", "identity"));
+        requests.add(get(base + "/person/addPerson", "text/html", "identity"));
+        requests.add(get(base + "/nations", "application/json", "identity"));
+        requests.add(get(base + "/nations?fields=nationality,flag", "application/json", "gzip"));
+        requests.add(get(base + "/currencies", "application/json", "identity"));
+        // personToEdit only echoes the posted person back into the form; it does not write
+        requests.add(HttpRequest.newBuilder(URI.create(base + "/person/personToEdit"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .header("Accept", "text/html")
+                .header(HEADER, TOKEN)
+                .timeout(Duration.ofSeconds(10))
+                .POST(HttpRequest.BodyPublishers.ofString("id=warmup&firstName=Warm&lastName=Up"))
+                .build());
+        return requests;
+    }
+
+    private static HttpRequest get(String uri, String accept, String encoding) {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Accept", accept)
+                .header("Accept-Encoding", encoding)
+                .header(HEADER, TOKEN)
+                .timeout(Duration.ofSeconds(10))
+                .GET()
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package sg.edu.nus.iss.d13revision.config;
+
+import java.util.Set;
+
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+
+/**
+ * Sparse responses via {@code ?fields=a,b}. The filter runs inside the
+ * serializer, so unrequested properties are skipped at write time rather than
+ * stripped from a copy. Applies to JSON, Smile and CBOR alike since they all
+ * come from the same builder.
+ */
+@Configuration
+public class JsonProjectionConfig {
+
+    public static final String FIELDS_FILTER = "fields";
+
+    @JsonFilter(FIELDS_FILTER)
+    interface ProjectableMixin {
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer projectionCustomizer() {
+        return builder -> builder
+                .mixIn(Person.class, ProjectableMixin.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    /** Wraps a body so only the given fields are written; no fields means all of them. */
+    public static MappingJacksonValue project(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null && !fields.isEmpty()) {
+            value.setFilters(new SimpleFilterProvider()
+                    .addFilter(FIELDS_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,33 @@
+package sg.edu.nus.iss.d13revision.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.models.PersonForm;
+
+/**
+ * Reflection and resource hints for the native image build. Spring AOT sees the
+ * beans but not the form/JSON binding of the models or the Faker YAML data files
+ * that ReferenceDataGenerator reads.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> model : new Class<?>[] { Person.class, PersonForm.class }) {
+            hints.reflection().registerType(model,
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                    MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+
+        hints.resources()
+                .registerPattern("*.yml")
+                .registerPattern("en/*.yml")
+                .registerPattern("db/*.sql")
+                .registerPattern("templates/*.html")
+                .registerPattern("static/**");
+    }
+}
@@ -0,0 +1,72 @@
+package sg.edu.nus.iss.d13revision.config;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Renders every page once through the running server so the Thymeleaf parse
+ * cache and the resource chain's content hashes are populated before the first
+ * real request. Runs after the web server starts and before the application
+ * reports itself ready. Requests carry the same warm-up marker as
+ * {@link JitWarmup}, so they stay out of the request metrics.
+ */
+@Component
+@ConditionalOnProperty(name = "templates.prewarm.enabled", havingValue = "true")
+@Slf4j
+public class TemplatePrewarmer implements ApplicationRunner {
+
+    @Autowired
+    private Environment env;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String port = env.getProperty("local.server.port");
+        if (port == null) {
+            log.info("No local web server, skipping template pre-warm");
+            return;
+        }
+
+        String base = "http://localhost:" + port + env.getProperty("server.servlet.context-path", "");
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+        long start = System.nanoTime();
+
+        render(client, HttpRequest.newBuilder(URI.create(base + "/person/index")).GET());
+        render(client, HttpRequest.newBuilder(URI.create(base + "/person/personList")).GET());
+        render(client, HttpRequest.newBuilder(URI.create(base + "/person/addPerson")).GET());
+        // personToEdit only echoes the posted person back into the form; it does not write
+        render(client, HttpRequest.newBuilder(URI.create(base + "/person/personToEdit"))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString("id=warmup&firstName=Warm&lastName=Up")));
+        render(client, HttpRequest.newBuilder(URI.create(base + "/person/does-not-exist")).GET());
+
+        log.info("Templates pre-warmed in {} ms", Duration.ofNanos(System.nanoTime() - start).toMillis());
+    }
+
+    private void render(HttpClient client, HttpRequest.Builder request) {
+        HttpRequest req = request.header("Accept", "text/html")
+                .header(JitWarmup.HEADER, JitWarmup.TOKEN)
+                .timeout(Duration.ofSeconds(10))
+                .build();
+        try {
+            HttpResponse<Void> res = client.send(req, HttpResponse.BodyHandlers.discarding());
+            log.debug("Pre-warmed {} -> {}", req.uri(), res.statusCode());
+        } catch (Exception e) {
+            log.warn("Template pre-warm of {} failed: {}", req.uri(), e.toString());
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
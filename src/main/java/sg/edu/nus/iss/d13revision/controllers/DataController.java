@@ -1,21 +1,29 @@
 package sg.edu.nus.iss.d13revision.controllers;
 
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.github.javafaker.Faker;
+import com.fasterxml.jackson.databind.JsonSerializable;
 
 import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.services.ReferenceDataGenerator;
 
 @RestController
 @Slf4j
 public class DataController {
+    @Autowired
+    ReferenceDataGenerator generator;
+
+    private static final String JAVA_RUNTIME_VERSION = System.getProperty("java.runtime.version");
+
+    // Probed constantly, so it only logs at debug and reads nothing per call
     @GetMapping("/")
     public String healthCheck() {
-        log.info("Health check endpoint called");
-        log.info("Java Runtime Version: {}", System.getProperty("java.runtime.version"));
+        log.debug("Health check endpoint called, Java Runtime Version: {}", JAVA_RUNTIME_VERSION);
         return "HEALTH CHECK OK!";
     }
 
@@ -26,36 +34,15 @@ public class DataController {
     }
 
     @GetMapping("/nations")
-    public JsonNode getRandomNations() {
+    public JsonSerializable getRandomNations(@RequestParam(required = false) Set<String> fields) {
         log.info("Nations endpoint called");
-        var objectMapper = new ObjectMapper();
-        var faker = new Faker();
-        var nations = objectMapper.createArrayNode();
-        for (var i = 0; i < 10; i++) {
-            var nation = faker.nation();
-            nations.add(objectMapper.createObjectNode()
-                    .put("nationality", nation.nationality())
-                    .put("capitalCity", nation.capitalCity())
-                    .put("flag", nation.flag())
-                    .put("language", nation.language()));
-        }
-        return nations;
+        return generator.nations(10, fields);
     }
 
     @GetMapping("/currencies")
-    public JsonNode getRandomCurrencies() {
+    public JsonSerializable getRandomCurrencies(@RequestParam(required = false) Set<String> fields) {
         log.info("Currencies endpoint called");
-        var objectMapper = new ObjectMapper();
-        var faker = new Faker();
-        var currencies = objectMapper.createArrayNode();
-        for (var i = 0; i < 20; i++) {
-            var currency = faker.currency();
-            currencies.add(objectMapper.createObjectNode()
-                    .put("name", currency.name())
-                    .put("code", currency.code()));
-        }
-        return currencies;
-
+        return generator.currencies(20, fields);
     }
 
 }
@@ -3,25 +3,44 @@ package sg.edu.nus.iss.d13revision.controllers;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.*;
 
+import sg.edu.nus.iss.d13revision.config.BinaryFormatsConfig;
+import sg.edu.nus.iss.d13revision.config.JsonProjectionConfig;
 import sg.edu.nus.iss.d13revision.models.Person;
 import sg.edu.nus.iss.d13revision.models.PersonForm;
+import sg.edu.nus.iss.d13revision.services.PersonBulkService;
 import sg.edu.nus.iss.d13revision.services.PersonService;
+import sg.edu.nus.iss.d13revision.repositories.PersonSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 @Controller
 @RequestMapping(path="/person")
 public class PersonController {
+    public static final String SNAPSHOT_VERSION_HEADER = "X-Snapshot-Version";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private List<Person> personList = new ArrayList<Person>();
 
     @Autowired
     PersonService perSvc;
 
+    @Autowired
+    PersonBulkService bulkSvc;
+
     @Value("${welcome.message}")
     private String message;
 
@@ -37,11 +56,50 @@ public class PersonController {
     }
 
     //@RequestMapping(value = "/testRetrieve", method = RequestMethod.GET, produces = "application/json")
-    @GetMapping(value = "/testRetrieve", produces = "application/json")
-    public @ResponseBody List<Person> getAllPersons() {
-        personList = perSvc.getPersons();
+    @GetMapping(value = "/testRetrieve", produces = { MediaType.APPLICATION_JSON_VALUE,
+            BinaryFormatsConfig.APPLICATION_SMILE_VALUE, BinaryFormatsConfig.APPLICATION_CBOR_VALUE })
+    public @ResponseBody MappingJacksonValue getAllPersons(@RequestParam(required = false) Set<String> fields,
+            @RequestParam(required = false) Long version,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(required = false) Integer limit,
+            HttpServletResponse response) {
+        if (version == null && offset == null && limit == null) {
+            personList = perSvc.getPersons();
+            return JsonProjectionConfig.project(personList, fields);
+        }
+
+        // Paging: pin every page to the version handed out with the first one
+        PersonSnapshot snapshot = version == null ? perSvc.snapshot()
+                : perSvc.snapshotAt(version).orElseThrow(() -> new ResponseStatusException(HttpStatus.GONE,
+                        "Snapshot " + version + " is no longer available, start again without version"));
+        response.setHeader(SNAPSHOT_VERSION_HEADER, Long.toString(snapshot.version()));
+        personList = snapshot.page(offset == null ? 0 : offset, limit == null ? Integer.MAX_VALUE : limit);
 
-        return personList;
+        return JsonProjectionConfig.project(personList, fields);
+    }
+
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" },
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody PersonBulkService.ImportResult importPersons(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, InputStream body) throws IOException {
+        PersonBulkService.Format format = contentType.isCompatibleWith(NDJSON)
+                ? PersonBulkService.Format.NDJSON : PersonBulkService.Format.CSV;
+
+        return bulkSvc.importFrom(body, format);
+    }
+
+    @GetMapping(value = "/export")
+    public void exportPersons(@RequestParam(defaultValue = "csv") String format, HttpServletResponse response)
+            throws IOException {
+        if ("ndjson".equalsIgnoreCase(format)) {
+            response.setContentType(NDJSON.toString());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=persons.ndjson");
+            bulkSvc.exportTo(response.getOutputStream(), PersonBulkService.Format.NDJSON);
+        } else {
+            response.setContentType("text/csv;charset=UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=persons.csv");
+            bulkSvc.exportTo(response.getOutputStream(), PersonBulkService.Format.CSV);
+        }
     }
 
     //@RequestMapping(value = "/personList", method = RequestMethod.GET)
@@ -70,7 +128,7 @@ public class PersonController {
         String fName = personForm.getFirstName();
         String lName = personForm.getLastName();
 
-        if (fName != null && fName.length() > 0 && lName != null && lName.length() > 0) {
+        if (personForm.isComplete()) {
             Person newPerson = new Person(fName, lName);
             perSvc.addPerson(newPerson);
 
@@ -0,0 +1,47 @@
+package sg.edu.nus.iss.d13revision.controllers;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import sg.edu.nus.iss.d13revision.probes.ReadinessCache;
+
+/**
+ * Kubernetes probes. Neither one logs, looks anything up or runs a health
+ * indicator: liveness is a field read and readiness is whatever
+ * {@link ReadinessCache} last worked out.
+ */
+@RestController
+public class ProbeController {
+
+    public static final String LIVEZ = "/livez";
+    public static final String READYZ = "/readyz";
+
+    private static final ResponseEntity<String> ALIVE = ResponseEntity.ok()
+            .contentType(MediaType.TEXT_PLAIN).body("ok");
+    private static final ResponseEntity<String> BROKEN = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .contentType(MediaType.TEXT_PLAIN).body("broken");
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private ReadinessCache readiness;
+
+    @GetMapping(LIVEZ)
+    public ResponseEntity<String> livez() {
+        return availability.getLivenessState() == LivenessState.CORRECT ? ALIVE : BROKEN;
+    }
+
+    @GetMapping(READYZ)
+    public ResponseEntity<byte[]> readyz() {
+        ReadinessCache.Readiness r = readiness.current();
+        return ResponseEntity.status(r.ready() ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE)
+                .contentType(MediaType.APPLICATION_JSON).body(r.body());
+    }
+}
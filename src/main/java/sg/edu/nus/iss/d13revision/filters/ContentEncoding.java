@@ -0,0 +1,71 @@
+package sg.edu.nus.iss.d13revision.filters;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public enum ContentEncoding {
+    // Listed in order of server preference when the client weights them equally.
+    // Brotli is left out: there is no pure-Java encoder, only a decoder.
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    private final String token;
+
+    ContentEncoding(String token) {
+        this.token = token;
+    }
+
+    public String token() {
+        return token;
+    }
+
+    public byte[] encode(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (OutputStream encoder = this == GZIP ? new GZIPOutputStream(out) : new DeflaterOutputStream(out)) {
+            encoder.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Picks the best encoding from an Accept-Encoding header, or null when the
+     * client accepts none we support.
+     */
+    public static ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+
+        ContentEncoding best = null;
+        double bestQ = 0;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim();
+            double q = 1.0;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        q = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        q = 0;
+                    }
+                }
+            }
+            for (ContentEncoding candidate : values()) {
+                boolean matches = candidate.token.equalsIgnoreCase(name) || "*".equals(name);
+                if (matches && q > 0 && (q > bestQ || (q == bestQ && candidate.ordinal() < best.ordinal()))) {
+                    best = candidate;
+                    bestQ = q;
+                }
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,173 @@
+package sg.edu.nus.iss.d13revision.filters;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import brave.Tracing;
+import brave.propagation.TraceContext;
+import brave.propagation.TraceContextOrSamplingFlags;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.config.JitWarmup;
+import sg.edu.nus.iss.d13revision.metrics.RouteLatencyRecorder;
+
+/**
+ * Times the person and reference-data routes into {@link RouteLatencyRecorder}.
+ *
+ * Sits just inside the server observation, so the request's span is current
+ * here and sampled spans become exemplars. Unsampled requests over
+ * metrics.latency.slow-request-threshold-ms get a trace of their own with
+ * sampling forced on, so slow requests reach Zipkin and their exemplar without
+ * tracing every request. Forced traces are capped at
+ * metrics.latency.slow-traces-per-second per route, so an overload that makes
+ * everything slow doesn't turn into full sampling; past the cap a slow request
+ * only gets its WARN log line.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@Slf4j
+public class LatencyRecordingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RouteLatencyRecorder recorder;
+
+    @Autowired
+    private ObjectProvider<Tracer> tracer;
+
+    @Autowired
+    private ObjectProvider<Tracing> tracing;
+
+    @Value("${metrics.latency.paths:/person,/nations,/currencies}")
+    private List<String> paths;
+
+    @Value("${metrics.latency.slow-request-threshold-ms:1000}")
+    private long slowRequestThresholdMs;
+
+    @Value("${metrics.latency.slow-traces-per-second:1}")
+    private int slowTracesPerSecond;
+
+    private final Map<String, SlowTraceBudget> slowTraceBudgets = new ConcurrentHashMap<>();
+
+    /** How many traces a route has forced in the current second. */
+    private static final class SlowTraceBudget {
+
+        private long second = Long.MIN_VALUE;
+        private int used;
+
+        synchronized boolean take(long now, int perSecond) {
+            if (now != second) {
+                second = now;
+                used = 0;
+            }
+            if (used == perSecond) {
+                return false;
+            }
+            used++;
+            return true;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (JitWarmup.isWarmupRequest(request)) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        for (String path : paths) {
+            if (uri.startsWith(path)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            String route = route(request, response);
+            if (route != null) {
+                Tracer t = tracer.getIfAvailable();
+                Span span = t == null ? null : t.currentSpan();
+                boolean sampled = span != null && Boolean.TRUE.equals(span.context().sampled());
+                String traceId = sampled ? span.context().traceId() : null;
+                String spanId = sampled ? span.context().spanId() : null;
+                if (!sampled && nanos >= slowRequestThresholdMs * 1_000_000) {
+                    TraceContext forced = mayForceTrace(route)
+                            ? traceSlowRequest(route, response.getStatus(), span, nanos)
+                            : null;
+                    if (forced != null) {
+                        traceId = forced.traceIdString();
+                        spanId = forced.spanIdString();
+                    }
+                    log.warn("Slow request {} took {} ms, trace {}", route, nanos / 1_000_000, traceId);
+                }
+                recorder.record(route, nanos, traceId, spanId);
+            }
+        }
+    }
+
+    private boolean mayForceTrace(String route) {
+        return slowTracesPerSecond > 0 && slowTraceBudgets.computeIfAbsent(route, r -> new SlowTraceBudget())
+                .take(System.nanoTime() / 1_000_000_000L, slowTracesPerSecond);
+    }
+
+    /**
+     * Head sampling already dropped this request's trace, so report a server span
+     * in a new, always-sampled trace, backdated to cover the request. It carries
+     * the unsampled trace id that the request's other log lines show.
+     */
+    private TraceContext traceSlowRequest(String route, int status, Span unsampled, long nanos) {
+        Tracing t = tracing.getIfAvailable();
+        if (t == null) {
+            return null;
+        }
+        brave.Span slow;
+        // out of the request's scope, or the new span would join its unsampled trace
+        try (brave.Tracer.SpanInScope cleared = t.tracer().withSpanInScope(null)) {
+            slow = t.tracer().nextSpan(TraceContextOrSamplingFlags.SAMPLED);
+        }
+        slow.kind(brave.Span.Kind.SERVER)
+                .name(route)
+                .tag("http.route", route)
+                .tag("http.status_code", Integer.toString(status))
+                .tag("slow_request", "true");
+        if (unsampled != null) {
+            slow.tag("unsampled.trace_id", unsampled.context().traceId());
+        }
+        long endMicros = System.currentTimeMillis() * 1000;
+        slow.start(endMicros - nanos / 1000);
+        slow.finish(endMicros);
+        return slow.context();
+    }
+
+    /** The handler pattern, so ids in paths can't multiply routes; null for anything unmatched. */
+    private static String route(HttpServletRequest request, HttpServletResponse response) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (pattern != null) {
+            return request.getMethod() + " " + pattern;
+        }
+        // coalesced followers are answered before reaching a handler
+        return response.getStatus() < 400 ? request.getMethod() + " " + request.getRequestURI() : null;
+    }
+}
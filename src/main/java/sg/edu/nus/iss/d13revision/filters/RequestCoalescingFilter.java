@@ -0,0 +1,234 @@
+package sg.edu.nus.iss.d13revision.filters;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.services.PersonService;
+import sg.edu.nus.iss.d13revision.utils.SingleFlight;
+
+/**
+ * Collapses identical concurrent reads of the person list into one. The first
+ * request for a key renders as usual; requests for the same key arriving while
+ * it runs go async, release their container thread and are answered with a
+ * copy of the leader's response: its status, body and the representation
+ * headers set from this filter inwards. Anything else, and all headers outer
+ * filters put on the leader's own response (a trace id, say), stays with the
+ * leader. A response meant for the leader alone (one setting a cookie, or
+ * marked private or no-store) is not shared: its followers render their own.
+ * The key is
+ * the path, query, Accept and Accept-Encoding headers and the store version, so
+ * a follower never receives data older than the store it asked about.
+ * Runs outside {@link ResponseCompressionFilter} so followers share the
+ * already-compressed bytes.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 10)
+@Slf4j
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+
+    @Autowired
+    PersonService perSvc;
+
+    @Value("${coalescing.paths:/person/testRetrieve,/person/personList}")
+    List<String> coalescedPaths;
+
+    @Value("${coalescing.follower-timeout-ms:30000}")
+    long followerTimeoutMs;
+
+    // only headers describing the shared body are copied; the body and its type are replayed on their own
+    private static final Set<String> REPLAYED_HEADERS = Set.of("cache-control", "content-disposition",
+            "content-encoding", "content-language", "etag", "expires", "last-modified", "vary",
+            "x-snapshot-version");
+
+    private final SingleFlight<String, CapturedResponse> flights = new SingleFlight<>();
+
+    /** A null headers map marks a response for the leader only. */
+    record CapturedResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+
+        boolean shared() {
+            return headers != null;
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !coalescedPaths.contains(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SingleFlight<String, CapturedResponse>.Flight flight = flights.join(keyOf(request));
+        if (!flight.isLeader()) {
+            follow(flight, request, response, chain);
+            return;
+        }
+
+        Map<String, List<String>> before = headersOf(response);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+        } catch (IOException | ServletException | RuntimeException | Error e) {
+            flight.fail(e);
+            throw e;
+        }
+        flight.complete(forLeaderOnly(wrapper)
+                ? new CapturedResponse(wrapper.getStatus(), null, null, new byte[0])
+                : new CapturedResponse(wrapper.getStatus(), wrapper.getContentType(),
+                        addedSince(before, headersOf(wrapper)), wrapper.getContentAsByteArray()));
+        wrapper.copyBodyToResponse();
+    }
+
+    private static boolean forLeaderOnly(HttpServletResponse response) {
+        if (response.containsHeader(HttpHeaders.SET_COOKIE)) {
+            return true;
+        }
+        for (String cacheControl : response.getHeaders(HttpHeaders.CACHE_CONTROL)) {
+            String directives = cacheControl.toLowerCase(Locale.ROOT);
+            if (directives.contains("private") || directives.contains("no-store")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, List<String>> headersOf(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (REPLAYED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.putIfAbsent(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+
+    /** The header values the chain added on top of what was already there. */
+    private static Map<String, List<String>> addedSince(Map<String, List<String>> before,
+            Map<String, List<String>> after) {
+        Map<String, List<String>> added = new HashMap<>();
+        after.forEach((name, values) -> {
+            List<String> old = before.getOrDefault(name, List.of());
+            if (!values.equals(old)) {
+                added.put(name, values.size() > old.size() && values.subList(0, old.size()).equals(old)
+                        ? values.subList(old.size(), values.size())
+                        : values);
+            }
+        });
+        return added;
+    }
+
+    private void follow(SingleFlight<String, CapturedResponse>.Flight flight, HttpServletRequest request,
+            HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!request.isAsyncSupported()) {
+            CapturedResponse captured;
+            try {
+                captured = flight.result().join();
+            } catch (RuntimeException e) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return;
+            }
+            if (captured.shared()) {
+                write(captured, response);
+            } else {
+                chain.doFilter(request, response);
+            }
+            return;
+        }
+
+        AsyncContext ctx = request.startAsync(request, response);
+        ctx.setTimeout(followerTimeoutMs);
+        AtomicBoolean done = new AtomicBoolean();
+        ctx.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (done.compareAndSet(false, true)) {
+                    ((HttpServletResponse) event.getSuppliedResponse())
+                            .sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    event.getAsyncContext().complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                done.set(true);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) {
+            }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) {
+            }
+        });
+
+        flight.result().whenComplete((captured, error) -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            if (error == null && !captured.shared()) {
+                // rendered again on a container thread; this filter lets the async dispatch through
+                ctx.dispatch();
+                return;
+            }
+            HttpServletResponse res = (HttpServletResponse) ctx.getResponse();
+            try {
+                if (error != null) {
+                    log.debug("Coalesced request failed with its leader: {}", error.toString());
+                    res.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                } else {
+                    write(captured, res);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Could not answer coalesced request: {}", e.toString());
+            } finally {
+                ctx.complete();
+            }
+        });
+    }
+
+    private static void write(CapturedResponse captured, HttpServletResponse response) throws IOException {
+        response.setStatus(captured.status());
+        if (captured.contentType() != null) {
+            response.setContentType(captured.contentType());
+        }
+        captured.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setContentLength(captured.body().length);
+        response.getOutputStream().write(captured.body());
+    }
+
+    private String keyOf(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return perSvc.getVersion() + " " + pathOf(request) + (query == null ? "" : "?" + query)
+                + " " + request.getHeader(HttpHeaders.ACCEPT)
+                + " " + request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,138 @@
+package sg.edu.nus.iss.d13revision.filters;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.services.PersonService;
+
+/**
+ * Compresses the person list responses and keeps the encoded bytes until the
+ * person store changes, so repeated reads skip both rendering and compression.
+ * Everything else is left to the container's own compression.
+ *
+ * Entries are keyed by the media type the handler negotiated rather than the
+ * raw Accept header, so the many spellings browsers and clients send for
+ * "JSON please" share one entry. Which type each Accept header ends up with
+ * is learned from the first response rendered for it.
+ */
+@Component
+@Slf4j
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    @Autowired
+    PersonService perSvc;
+
+    @Value("${compression.min-response-size:2048}")
+    private int minResponseSize;
+
+    @Value("${compression.cached-paths:/person/testRetrieve,/person/personList}")
+    private List<String> cachedPaths;
+
+    @Value("${compression.cache.max-entries:64}")
+    private int maxEntries;
+
+    @Value("${compression.cache.max-accept-headers:1024}")
+    private int maxAcceptHeaders;
+
+    private final ConcurrentMap<String, EncodedPayload> cache = new ConcurrentHashMap<>();
+    // Accept header and request -> the content type the handler produced for them
+    private final ConcurrentMap<String, String> negotiated = new ConcurrentHashMap<>();
+
+    record EncodedPayload(long version, ContentEncoding encoding, String contentType, byte[] body) {
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || !cachedPaths.contains(pathOf(request));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+
+        ContentEncoding encoding = ContentEncoding.negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (encoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        // Read the version before rendering: if a write lands mid-render the entry
+        // is labelled older than its content and simply gets rebuilt next time.
+        long version = perSvc.getVersion();
+        String target = targetOf(request);
+        String acceptKey = request.getHeader(HttpHeaders.ACCEPT) + ' ' + target;
+        String contentType = negotiated.get(acceptKey);
+        EncodedPayload cached = contentType == null ? null : cache.get(cacheKey(encoding, contentType, target));
+        if (cached != null && cached.version() == version) {
+            write(cached, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        chain.doFilter(request, wrapper);
+
+        byte[] body = wrapper.getContentAsByteArray();
+        contentType = wrapper.getContentType();
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || body.length < minResponseSize || contentType == null) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        if (negotiated.size() >= maxAcceptHeaders) {
+            // only a lookup hint; relearning it costs one render per header
+            negotiated.clear();
+        }
+        negotiated.put(acceptKey, contentType);
+        EncodedPayload payload = new EncodedPayload(version, encoding, contentType, encoding.encode(body));
+        store(cacheKey(encoding, contentType, target), payload);
+        write(payload, response);
+    }
+
+    private void store(String key, EncodedPayload payload) {
+        if (cache.size() >= maxEntries && !cache.containsKey(key)) {
+            cache.values().removeIf(e -> e.version() != payload.version());
+            if (cache.size() >= maxEntries) {
+                log.debug("Compressed response cache full, not caching {}", key);
+                return;
+            }
+        }
+        cache.put(key, payload);
+    }
+
+    private static void write(EncodedPayload payload, HttpServletResponse response) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(payload.contentType());
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, payload.encoding().token());
+        response.setContentLength(payload.body().length);
+        response.getOutputStream().write(payload.body());
+    }
+
+    private static String cacheKey(ContentEncoding encoding, String contentType, String target) {
+        // the same URL renders as JSON, Smile or CBOR, so the negotiated type is part of the key
+        return encoding.token() + ' ' + contentType + ' ' + target;
+    }
+
+    private static String targetOf(HttpServletRequest request) {
+        String query = request.getQueryString();
+        return pathOf(request) + (query == null ? "" : "?" + query);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,19 @@
+package sg.edu.nus.iss.d13revision.logging;
+
+import java.util.function.Function;
+
+import com.github.loki4j.client.http.HttpConfig;
+import com.github.loki4j.client.http.Loki4jHttpClient;
+import com.github.loki4j.logback.JavaHttpSender;
+
+/**
+ * Loki4j's JDK HTTP sender, but posting each batch gzip-compressed.
+ * Configured in logback-spring.xml as {@code <http class="...GzipJavaHttpSender">}.
+ */
+public class GzipJavaHttpSender extends JavaHttpSender {
+
+    @Override
+    public Function<HttpConfig, Loki4jHttpClient> getHttpClientFactory() {
+        return GzipLokiHttpClient::new;
+    }
+}
@@ -0,0 +1,35 @@
+package sg.edu.nus.iss.d13revision.logging;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Exports the drop counters of every {@link MeteredAsyncAppender} configured
+ * by logback-spring.xml. Logging is set up before the application context, so
+ * the appenders are already running by the time this binds.
+ */
+@Component
+public class LogShippingMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (MeteredAsyncAppender appender : MeteredAsyncAppender.running()) {
+            FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getDiscardedCount)
+                    .description("Log events dropped before shipping")
+                    .tags("appender", appender.getName(), "reason", "discarded")
+                    .register(registry);
+            FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getOverflowCount)
+                    .description("Log events dropped before shipping")
+                    .tags("appender", appender.getName(), "reason", "queue_full")
+                    .register(registry);
+            Gauge.builder("logging.async.queue.depth", appender, MeteredAsyncAppender::getQueueDepth)
+                    .description("Log events waiting to be shipped")
+                    .tags("appender", appender.getName())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package sg.edu.nus.iss.d13revision.logging;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AsyncAppenderBase;
+
+/**
+ * AsyncAppender that counts what it drops. Logback's AsyncAppender already
+ * sheds TRACE/DEBUG/INFO once the queue passes its discarding threshold and,
+ * with neverBlock, drops rather than waits when the queue is full; it just
+ * doesn't say how many. The counts are published by {@link LogShippingMetrics}.
+ *
+ * With neverBlock, events are offered to the base class's queue directly so a
+ * refused offer can be counted; the base class would drop it silently.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private static final Map<String, MeteredAsyncAppender> RUNNING = new ConcurrentHashMap<>();
+
+    private final LongAdder discarded = new LongAdder();
+    private final LongAdder overflowed = new LongAdder();
+    // the base class's own queue, read once it is started; null if it could not be reached
+    private BlockingQueue<ILoggingEvent> queue;
+
+    static Collection<MeteredAsyncAppender> running() {
+        return Collections.unmodifiableCollection(RUNNING.values());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void start() {
+        super.start();
+        if (!isStarted()) {
+            return;
+        }
+        try {
+            // package-private in logback, and only ever assigned in start()
+            Field field = AsyncAppenderBase.class.getDeclaredField("blockingQueue");
+            field.setAccessible(true);
+            queue = (BlockingQueue<ILoggingEvent>) field.get(this);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            addWarn("Cannot reach the async queue, events dropped when it is full will not be counted", e);
+        }
+        RUNNING.put(getName(), this);
+    }
+
+    @Override
+    public void stop() {
+        RUNNING.remove(getName(), this);
+        super.stop();
+    }
+
+    /**
+     * The base class only asks once the queue is past the discarding threshold,
+     * and drops the event when this says yes, so each yes is a real discard.
+     */
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discard = super.isDiscardable(event);
+        if (discard) {
+            discarded.increment();
+        }
+        return discard;
+    }
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (!isNeverBlock() || queue == null) {
+            // without neverBlock a full queue blocks the caller instead, nothing is lost
+            super.append(event);
+            return;
+        }
+        // what the base class does, except that a refused offer is counted
+        if (isQueueBelowDiscardingThreshold() && isDiscardable(event)) {
+            return;
+        }
+        preprocess(event);
+        if (!queue.offer(event)) {
+            overflowed.increment();
+        }
+    }
+
+    /** Low-level events shed because the queue was past the discarding threshold. */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    /** Events of any level dropped because the queue was full. */
+    public long getOverflowCount() {
+        return overflowed.sum();
+    }
+
+    public int getQueueDepth() {
+        return getNumberOfElementsInQueue();
+    }
+}
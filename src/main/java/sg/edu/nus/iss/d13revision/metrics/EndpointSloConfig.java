@@ -0,0 +1,63 @@
+package sg.edu.nus.iss.d13revision.metrics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+
+/**
+ * SLO buckets per endpoint for http.server.requests, from
+ * metrics.slo.endpoints[/path]=10ms,50ms,250ms. Endpoints not listed keep
+ * management.metrics.distribution.slo.http.server.requests. A handful of
+ * buckets per endpoint replaces the full percentiles histogram, which
+ * published dozens of series for every uri, method and status.
+ */
+@Configuration
+public class EndpointSloConfig {
+
+    private static final String HTTP_SERVER_REQUESTS = "http.server.requests";
+
+    // after Boot's own properties filter, so these win over the global SLO list
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public MeterFilter endpointSloFilter(Environment env) {
+        Map<String, double[]> slos = new HashMap<>();
+        Binder.get(env).bind("metrics.slo.endpoints", Bindable.mapOf(String.class, String.class))
+                .orElse(Map.of())
+                .forEach((uri, spec) -> slos.put(uri, Arrays.stream(spec.split(","))
+                        .map(String::trim)
+                        .map(DurationStyle::detectAndParse)
+                        .mapToDouble(d -> (double) d.toNanos())
+                        .sorted()
+                        .toArray()));
+
+        return new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                if (!HTTP_SERVER_REQUESTS.equals(id.getName())) {
+                    return config;
+                }
+                double[] buckets = slos.get(id.getTag("uri"));
+                if (buckets == null) {
+                    return config;
+                }
+                return DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(buckets)
+                        .build()
+                        .merge(config);
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package sg.edu.nus.iss.d13revision.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * GET /actuator/latency: per-route percentiles and exemplar trace ids from
+ * {@link RouteLatencyRecorder}. DELETE starts the totals afresh.
+ */
+@Component
+@Endpoint(id = "latency")
+public class LatencyEndpoint {
+
+    @Autowired
+    private RouteLatencyRecorder recorder;
+
+    @ReadOperation
+    public Map<String, Object> latency() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("routes", recorder.summaries());
+        body.put("dropped", recorder.dropped());
+        return body;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        recorder.reset();
+    }
+}
@@ -0,0 +1,109 @@
+package sg.edu.nus.iss.d13revision.metrics;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-route latency kept in process, for percentiles the Prometheus buckets
+ * are too coarse to give.
+ *
+ * Request threads write to an HdrHistogram {@link Recorder}, which never
+ * blocks them. They also leave the trace id of a recent request in each
+ * power-of-two latency band, so a slow band points at a trace to open.
+ * Readers fold the recorders into running totals.
+ */
+@Component
+public class RouteLatencyRecorder {
+
+    // bands by microseconds: [1, 2), [2, 4) ... the last one is open-ended (~16 s and up)
+    static final int EXEMPLAR_BANDS = 25;
+
+    public record Exemplar(double latencyMs, String traceId, String spanId, Instant timestamp) {
+    }
+
+    public record RouteSummary(long count, double p50Ms, double p90Ms, double p99Ms, double p999Ms, double maxMs,
+            List<Exemplar> exemplars) {
+    }
+
+    private static final class Route {
+        final Recorder recorder = new Recorder(3);
+        final AtomicReferenceArray<Exemplar> exemplars = new AtomicReferenceArray<>(EXEMPLAR_BANDS);
+        final Histogram total = new Histogram(3);
+    }
+
+    private final ConcurrentMap<String, Route> routes = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+
+    // routes come from handler patterns, so this only matters if something goes wrong
+    @Value("${metrics.latency.max-routes:100}")
+    int maxRoutes = 100;
+
+    /** Records one request; traceId may be null when the request was not sampled. */
+    public void record(String route, long nanos, String traceId, String spanId) {
+        Route r = routes.get(route);
+        if (r == null) {
+            if (routes.size() >= maxRoutes) {
+                dropped.increment();
+                return;
+            }
+            r = routes.computeIfAbsent(route, k -> new Route());
+        }
+        long micros = Math.max(1, nanos / 1000);
+        r.recorder.recordValue(micros);
+        if (traceId != null) {
+            int band = Math.min(EXEMPLAR_BANDS - 1, 63 - Long.numberOfLeadingZeros(micros));
+            r.exemplars.lazySet(band, new Exemplar(micros / 1000.0, traceId, spanId, Instant.now()));
+        }
+    }
+
+    /** Totals since start (or the last reset), by route, slowest exemplar first. */
+    public synchronized Map<String, RouteSummary> summaries() {
+        Map<String, RouteSummary> summaries = new TreeMap<>();
+        routes.forEach((name, r) -> {
+            r.total.add(r.recorder.getIntervalHistogram());
+            List<Exemplar> exemplars = new ArrayList<>();
+            for (int i = EXEMPLAR_BANDS - 1; i >= 0; i--) {
+                Exemplar e = r.exemplars.get(i);
+                if (e != null) {
+                    exemplars.add(e);
+                }
+            }
+            Histogram h = r.total;
+            summaries.put(name, new RouteSummary(h.getTotalCount(), ms(h.getValueAtPercentile(50)),
+                    ms(h.getValueAtPercentile(90)), ms(h.getValueAtPercentile(99)),
+                    ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()), exemplars));
+        });
+        return summaries;
+    }
+
+    public synchronized void reset() {
+        routes.values().forEach(r -> {
+            r.recorder.reset();
+            r.total.reset();
+            for (int i = 0; i < EXEMPLAR_BANDS; i++) {
+                r.exemplars.set(i, null);
+            }
+        });
+    }
+
+    /** Requests not recorded because maxRoutes was reached. */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -16,4 +16,9 @@ public class PersonForm {
     public void setLastName(String lastName) {
         this.lastName = lastName;
     }
+
+    // Both names are required, for the add form and for bulk imports alike
+    public boolean isComplete() {
+        return firstName != null && firstName.length() > 0 && lastName != null && lastName.length() > 0;
+    }
 }
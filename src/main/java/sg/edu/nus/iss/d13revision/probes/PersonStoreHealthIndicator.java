@@ -0,0 +1,30 @@
+package sg.edu.nus.iss.d13revision.probes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import sg.edu.nus.iss.d13revision.repositories.PersonSnapshot;
+import sg.edu.nus.iss.d13revision.services.PersonService;
+
+/** The person store answers and how big it is; reported as personStore. */
+@Component("personStore")
+public class PersonStoreHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private PersonService perSvc;
+
+    @Override
+    public Health health() {
+        try {
+            PersonSnapshot snapshot = perSvc.snapshot();
+            return Health.up()
+                    .withDetail("version", snapshot.version())
+                    .withDetail("persons", snapshot.size())
+                    .build();
+        } catch (RuntimeException e) {
+            return Health.down(e).build();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package sg.edu.nus.iss.d13revision.probes;
+
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.catalina.connector.Connector;
+import org.apache.coyote.AbstractProtocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import io.micrometer.observation.ObservationPredicate;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import sg.edu.nus.iss.d13revision.controllers.ProbeController;
+
+/**
+ * Keeps probes cheap and out of the way of real traffic.
+ *
+ * Probe requests are not observed, so they make no timer samples or trace
+ * spans. With probes.port set, Tomcat also listens on that port with its own
+ * small thread pool. Probes sent there never queue behind a busy main
+ * connector, and nothing but the probes is served on it.
+ */
+@Configuration
+public class ProbeConfig {
+
+    static final Set<String> PROBE_PATHS = Set.of(ProbeController.LIVEZ, ProbeController.READYZ, "/");
+
+    @Bean
+    public ObservationPredicate skipProbeObservations() {
+        return (name, context) -> !(context instanceof ServerRequestObservationContext request
+                && PROBE_PATHS.contains(request.getCarrier().getRequestURI()));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "probes.port")
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> probeConnector(
+            @Value("${probes.port}") int port, @Value("${probes.threads:2}") int threads) {
+        return factory -> {
+            Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+            connector.setPort(port);
+            // no shared executor, so this connector gets a pool of its own
+            AbstractProtocol<?> protocol = (AbstractProtocol<?>) connector.getProtocolHandler();
+            protocol.setMaxThreads(threads);
+            protocol.setMinSpareThreads(1);
+            protocol.setAcceptCount(16);
+            factory.addAdditionalTomcatConnectors(connector);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "probes.port")
+    public OncePerRequestFilter probePortFilter(@Value("${probes.port}") int port) {
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                    FilterChain chain) throws ServletException, IOException {
+                if (request.getLocalPort() == port && !PROBE_PATHS.contains(request.getRequestURI())) {
+                    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                    return;
+                }
+                chain.doFilter(request, response);
+            }
+        };
+    }
+}
@@ -0,0 +1,125 @@
+package sg.edu.nus.iss.d13revision.probes;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Readiness worked out off the request path. A background thread runs the
+ * health indicators every probes.refresh-interval and combines them with the
+ * application's readiness state, which stays REFUSING_TRAFFIC until start-up
+ * and warm-up are done. /readyz then only hands out the last result, already
+ * encoded as JSON.
+ */
+@Component
+@Slf4j
+public class ReadinessCache {
+
+    /** The last check, with its JSON body ready to write. */
+    public record Readiness(boolean ready, byte[] body, Instant checkedAt) {
+    }
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private HealthEndpoint healthEndpoint;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${probes.refresh-interval:2s}")
+    private Duration refreshInterval = Duration.ofSeconds(2);
+
+    private volatile Readiness current;
+    private ScheduledExecutorService refresher;
+
+    @PostConstruct
+    void start() {
+        current = readiness(false, "STARTING", Map.of());
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "readiness-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+        // fixed delay: a slow indicator delays the next check instead of piling them up
+        refresher.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        refresher.shutdownNow();
+    }
+
+    /** Re-check straight away when start-up, warm-up or shutdown flips readiness. */
+    @EventListener
+    public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+        if (!refresher.isShutdown()) {
+            refresher.execute(this::refresh);
+        }
+    }
+
+    public Readiness current() {
+        Readiness r = current;
+        // a stuck refresher must not keep handing out its last good answer
+        if (r.ready() && r.checkedAt().plus(refreshInterval.multipliedBy(3)).isBefore(Instant.now())) {
+            return readiness(false, "STALE", Map.of("lastChecked", r.checkedAt().toString()));
+        }
+        return r;
+    }
+
+    void refresh() {
+        try {
+            ReadinessState state = availability.getReadinessState();
+            HealthComponent health = healthEndpoint.health();
+            Map<String, Object> components = new LinkedHashMap<>();
+            components.put("readinessState", state);
+            if (health instanceof CompositeHealth composite) {
+                composite.getComponents().forEach((name, c) -> components.put(name, c.getStatus().getCode()));
+            }
+            Status status = health.getStatus();
+            boolean ready = state == ReadinessState.ACCEPTING_TRAFFIC
+                    && (Status.UP.equals(status) || Status.UNKNOWN.equals(status));
+            current = readiness(ready, ready ? "UP" : "DOWN", components);
+        } catch (RuntimeException e) {
+            log.warn("Readiness check failed", e);
+            current = readiness(false, "DOWN", Map.of("error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    private Readiness readiness(boolean ready, String status, Map<String, Object> components) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", status);
+        body.put("components", components);
+        Instant now = Instant.now();
+        body.put("checkedAt", now.toString());
+        try {
+            return new Readiness(ready, objectMapper.writeValueAsBytes(body), now);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
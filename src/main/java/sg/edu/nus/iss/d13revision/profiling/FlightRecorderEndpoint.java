@@ -0,0 +1,176 @@
+package sg.edu.nus.iss.d13revision.profiling;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Java Flight Recorder on demand, without attaching anything to the JVM.
+ *
+ * POST /actuator/jfr starts a recording (optionally {"duration": "2m"}),
+ * GET /actuator/jfr shows how it is going, and DELETE /actuator/jfr stops it
+ * and streams back the .jfr file for JDK Mission Control or `jfr print`.
+ * One recording runs at a time; it stops by itself after jfr.max-duration.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@Slf4j
+public class FlightRecorderEndpoint {
+
+    // Applied on top of jfr.settings: our own events, finer CPU sampling and
+    // lock / park / socket waits short enough to explain a latency spike
+    private static final Map<String, String> OVERRIDES = Map.of(
+            "sg.edu.nus.iss.d13revision.PersonStore#enabled", "true",
+            "sg.edu.nus.iss.d13revision.ReferenceData#enabled", "true",
+            "jdk.ExecutionSample#period", "10 ms",
+            "jdk.NativeMethodSample#period", "20 ms",
+            "jdk.ObjectAllocationSample#throttle", "300/s",
+            "jdk.JavaMonitorEnter#threshold", "1 ms",
+            "jdk.ThreadPark#threshold", "1 ms",
+            "jdk.SocketRead#threshold", "5 ms",
+            "jdk.SocketWrite#threshold", "5 ms");
+
+    // a JDK settings name (default, profile) or a .jfc file
+    @Value("${jfr.settings:profile}")
+    String settings = "profile";
+
+    @Value("${jfr.max-duration:10m}")
+    Duration maxDuration = Duration.ofMinutes(10);
+
+    @Value("${jfr.max-size:256MB}")
+    DataSize maxSize = DataSize.ofMegabytes(256);
+
+    private Recording recording;
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("available", FlightRecorder.isAvailable());
+        status.put("settings", settings);
+        if (recording != null) {
+            status.put("state", recording.getState());
+            status.put("startTime", recording.getStartTime());
+            status.put("duration", recording.getDuration());
+            status.put("size", recording.getSize());
+        } else {
+            status.put("state", "NONE");
+        }
+        return status;
+    }
+
+    @WriteOperation
+    public synchronized WebEndpointResponse<Map<String, Object>> start(@Nullable Duration duration) {
+        if (!FlightRecorder.isAvailable()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_SERVICE_UNAVAILABLE);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            return new WebEndpointResponse<>(status(), WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+        discard();
+
+        Map<String, String> config = new HashMap<>(configuration().getSettings());
+        config.putAll(OVERRIDES);
+        Recording r = new Recording(config);
+        r.setName("actuator-" + System.currentTimeMillis());
+        r.setToDisk(true);
+        r.setMaxSize(maxSize.toBytes());
+        r.setDuration(duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration);
+        r.start();
+        recording = r;
+        log.info("Started flight recording {} for up to {}", r.getName(), r.getDuration());
+        return new WebEndpointResponse<>(status());
+    }
+
+    @DeleteOperation(produces = "application/octet-stream")
+    public synchronized WebEndpointResponse<Resource> stop() throws IOException {
+        if (recording == null) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        if (recording.getState() == RecordingState.RUNNING) {
+            recording.stop();
+        }
+        Path file = Files.createTempFile(recording.getName() + "-", ".jfr");
+        try {
+            recording.dump(file);
+        } finally {
+            discard();
+        }
+        log.info("Stopped flight recording, {} bytes", Files.size(file));
+        return new WebEndpointResponse<>(new TemporaryFileResource(file.toFile()));
+    }
+
+    @PreDestroy
+    synchronized void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private Configuration configuration() {
+        try {
+            if (settings.endsWith(".jfc")) {
+                return Configuration.create(Path.of(settings));
+            }
+            return Configuration.getConfiguration(settings);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid jfr.settings " + settings, e);
+        }
+    }
+
+    /** The dumped recording, deleted once it has been streamed back. */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        TemporaryFileResource(File file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(new FileInputStream(getFile())) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    Files.deleteIfExists(getFile().toPath());
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // keeps the response from being served straight off the file, which would skip the delete
+            return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package sg.edu.nus.iss.d13revision.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * One write to the person store, timed from the call until the change is
+ * visible to readers. With the single writer on, that includes the wait for a
+ * ring slot and for the writer thread, so a long event here is contention.
+ *
+ * Usage is begin(), the write, then {@link #finish}. While no recording has
+ * this event enabled, shouldCommit() is false and the JIT removes the rest.
+ */
+@Name("sg.edu.nus.iss.d13revision.PersonStore")
+@Label("Person Store Write")
+@Category({ "d13revision", "Person Store" })
+@Description("A write to the person store, from call until visible to readers")
+@StackTrace(false)
+@Threshold("0 ms")
+public class PersonStoreEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Persons")
+    int persons;
+
+    @Label("Single Writer")
+    @Description("Whether the write went through the single-writer ring")
+    boolean singleWriter;
+
+    @Label("Version")
+    @Description("Store version once the write had been applied")
+    long version;
+
+    public void finish(String operation, int persons, boolean singleWriter, long version) {
+        end();
+        if (shouldCommit()) {
+            this.operation = operation;
+            this.persons = persons;
+            this.singleWriter = singleWriter;
+            this.version = version;
+            commit();
+        }
+    }
+}
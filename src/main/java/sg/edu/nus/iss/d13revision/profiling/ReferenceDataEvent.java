@@ -0,0 +1,44 @@
+package sg.edu.nus.iss.d13revision.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Generating one /nations or /currencies response. Values are picked and
+ * written to the JSON generator in the same loop, so the duration is
+ * generation and serialisation together, up to the point the bytes are
+ * handed to the response buffer.
+ */
+@Name("sg.edu.nus.iss.d13revision.ReferenceData")
+@Label("Reference Data Generation")
+@Category({ "d13revision", "Reference Data" })
+@Description("Generating and serialising a nations or currencies response")
+@StackTrace(false)
+@Threshold("0 ms")
+public class ReferenceDataEvent extends Event {
+
+    @Label("Dataset")
+    String dataset;
+
+    @Label("Records")
+    int records;
+
+    @Label("Fields")
+    @Description("Requested fields, empty for all")
+    String fields;
+
+    public void finish(String dataset, int records, String fields) {
+        end();
+        if (shouldCommit()) {
+            this.dataset = dataset;
+            this.records = records;
+            this.fields = fields;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+
+/**
+ * Keeps the store as a chain of immutable {@link PersonSnapshot}s. Reads are a
+ * single volatile load; writes derive the next snapshot and swap it in.
+ */
+@Repository
+@ConditionalOnProperty(name = "person.repository", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPersonRepository implements PersonRepository {
+
+    private final AtomicReference<PersonSnapshot> current = new AtomicReference<>(PersonSnapshot.of(0,
+            List.of(new Person("Mark", "Zuckerberg"), new Person("Elon", "Musk"))));
+
+    // Recent versions kept so a client paging through the list sees one consistent view
+    private final ConcurrentSkipListMap<Long, PersonSnapshot> retained = new ConcurrentSkipListMap<>();
+
+    @Value("${person.snapshot.retained:64}")
+    private int retainedVersions = 64;
+
+    public InMemoryPersonRepository() {
+        retained.put(0L, current.get());
+    }
+
+    @Override
+    public PersonSnapshot snapshot() {
+        return current.get();
+    }
+
+    @Override
+    public Optional<PersonSnapshot> snapshotAt(long version) {
+        PersonSnapshot now = current.get();
+        if (now.version() == version) {
+            return Optional.of(now);
+        }
+        return Optional.ofNullable(retained.get(version));
+    }
+
+    @Override
+    public long version() {
+        return current.get().version();
+    }
+
+    @Override
+    public Optional<Person> findById(String id) {
+        return Optional.ofNullable(current.get().get(id));
+    }
+
+    @Override
+    public List<Person> findByLastName(String lastName) {
+        return current.get().persons().stream().filter(p -> lastName.equals(p.getLastName())).toList();
+    }
+
+    @Override
+    public void forEach(Consumer<Person> action) {
+        current.get().persons().forEach(action);
+    }
+
+    @Override
+    public void apply(Kind kind, Person person) {
+        update(s -> s.apply(kind, person));
+    }
+
+    @Override
+    public void applyAll(List<PersonMutation> batch) {
+        update(s -> {
+            for (PersonMutation m : batch) {
+                s = s.apply(m.kind(), m.person());
+            }
+            return s;
+        });
+    }
+
+    @Override
+    public void addAll(Collection<Person> persons) {
+        update(s -> {
+            for (Person p : persons) {
+                s = s.apply(Kind.ADD, p);
+            }
+            return s;
+        });
+    }
+
+    private void update(UnaryOperator<PersonSnapshot> change) {
+        PersonSnapshot next = current.updateAndGet(change);
+        retained.put(next.version(), next);
+        while (retained.size() > retainedVersions) {
+            retained.pollFirstEntry();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+import sg.edu.nus.iss.d13revision.utils.PersonIds;
+
+/**
+ * Stores people in an embedded SQL database (H2 in file mode by default, see
+ * application-jdbc.properties) through the pooled DataSource Spring Boot sets
+ * up. Lookups by id and last name hit indexes; bulk adds go out as JDBC
+ * batches inside one transaction.
+ *
+ * The full list is read once per version and kept as a {@link PersonSnapshot},
+ * so list pages cost no SQL until something changes.
+ */
+@Repository
+@ConditionalOnProperty(name = "person.repository", havingValue = "jdbc")
+@Slf4j
+public class JdbcPersonRepository implements PersonRepository {
+
+    // column sizes in db/person-schema.sql
+    static final int MAX_ID_LENGTH = 36;
+    static final int MAX_NAME_LENGTH = 255;
+
+    private static final RowMapper<Person> PERSON = (rs, i) -> new Person(rs.getString("id"),
+            rs.getString("first_name"), rs.getString("last_name"));
+
+    private static final String SELECT_ALL = "SELECT id, first_name, last_name FROM person ORDER BY seq";
+    private static final String SELECT_BY_ID = "SELECT id, first_name, last_name FROM person WHERE id = ?";
+    private static final String SELECT_BY_LAST_NAME =
+            "SELECT id, first_name, last_name FROM person WHERE last_name = ? ORDER BY seq";
+    private static final String INSERT = "INSERT INTO person (id, first_name, last_name) VALUES (?, ?, ?)";
+    private static final String UPSERT = "MERGE INTO person (id, first_name, last_name) KEY (id) VALUES (?, ?, ?)";
+    private static final String UPDATE = "UPDATE person SET first_name = ?, last_name = ? WHERE id = ?";
+    private static final String DELETE = "DELETE FROM person WHERE id = ?";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final AtomicLong version = new AtomicLong();
+    private volatile PersonSnapshot cached;
+
+    @Value("${person.jdbc.batch-size:500}")
+    private int batchSize = 500;
+
+    public JdbcPersonRepository(JdbcTemplate jdbc, TransactionTemplate tx) {
+        this.jdbc = jdbc;
+        this.tx = tx;
+    }
+
+    @PostConstruct
+    public void init() {
+        jdbc.execute((Connection con) -> {
+            ScriptUtils.executeSqlScript(con, new ClassPathResource("db/person-schema.sql"));
+            return null;
+        });
+        Integer count = jdbc.queryForObject("SELECT COUNT(*) FROM person", Integer.class);
+        if (count != null && count == 0) {
+            tx.executeWithoutResult(status -> insert(
+                    List.of(new Person("Mark", "Zuckerberg"), new Person("Elon", "Musk"))));
+        }
+        log.info("Person store on JDBC with {} rows", jdbc.queryForObject("SELECT COUNT(*) FROM person", Integer.class));
+    }
+
+    @Override
+    public PersonSnapshot snapshot() {
+        PersonSnapshot snapshot = cached;
+        // Read the version first: a write landing mid-query only makes the label older than the rows
+        long v = version.get();
+        if (snapshot == null || snapshot.version() != v) {
+            snapshot = PersonSnapshot.of(v, jdbc.query(SELECT_ALL, PERSON));
+            cached = snapshot;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Optional<PersonSnapshot> snapshotAt(long version) {
+        PersonSnapshot snapshot = snapshot();
+        return snapshot.version() == version ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public Optional<Person> findById(String id) {
+        return jdbc.query(SELECT_BY_ID, PERSON, id).stream().findFirst();
+    }
+
+    @Override
+    public List<Person> findByLastName(String lastName) {
+        return jdbc.query(SELECT_BY_LAST_NAME, PERSON, lastName);
+    }
+
+    @Override
+    public void forEach(Consumer<Person> action) {
+        // rows are fetched a page at a time instead of loading the whole table
+        jdbc.query(con -> {
+            PreparedStatement ps = con.prepareStatement(SELECT_ALL);
+            ps.setFetchSize(batchSize);
+            return ps;
+        }, (ResultSet rs) -> {
+            action.accept(PERSON.mapRow(rs, 0));
+        });
+    }
+
+    @Override
+    public void apply(Kind kind, Person person) {
+        applyAll(List.of(new PersonMutation(kind, person, null)));
+    }
+
+    @Override
+    public void applyAll(List<PersonMutation> batch) {
+        tx.executeWithoutResult(status -> {
+            // consecutive adds go out as one JDBC batch
+            List<Person> adds = new ArrayList<>();
+            Set<String> drawn = new HashSet<>();
+            for (PersonMutation m : batch) {
+                if (m.kind() == Kind.ADD) {
+                    adds.add(withFreshId(m.person(), drawn));
+                    continue;
+                }
+                insertRedrawing(adds, drawn);
+                adds.clear();
+                Person p = m.person();
+                if (m.kind() == Kind.REMOVE) {
+                    jdbc.update(DELETE, p.getId());
+                } else if (jdbc.update(UPDATE, p.getFirstName(), p.getLastName(), p.getId()) == 0) {
+                    // same as the in-memory store: updating an unknown id adds it
+                    jdbc.update(INSERT, p.getId(), p.getFirstName(), p.getLastName());
+                }
+            }
+            insertRedrawing(adds, drawn);
+        });
+        version.addAndGet(batch.size());
+    }
+
+    @Override
+    public void addAll(Collection<Person> persons) {
+        tx.executeWithoutResult(status -> {
+            Set<String> drawn = new HashSet<>();
+            insertRedrawing(persons.stream().map(p -> withFreshId(p, drawn)).toList(), drawn);
+        });
+        version.addAndGet(persons.size());
+    }
+
+    /** An id not yet given to this batch; clashes with the table are left to {@link #insertRedrawing}. */
+    private static Person withFreshId(Person p, Set<String> drawn) {
+        return new Person(PersonIds.fresh(candidate -> !drawn.add(candidate)), p.getFirstName(), p.getLastName());
+    }
+
+    /**
+     * Batch-inserts people under ids drawn without asking the table. A clash with an
+     * existing row is rare, so rather than a lookup per row, only the rows the database
+     * rejects on the primary key are drawn again and re-inserted.
+     *
+     * @return old id to new id for every row that had to be redrawn
+     */
+    private Map<String, String> insertRedrawing(List<Person> persons, Set<String> drawn) {
+        Map<String, String> redrawn = new LinkedHashMap<>();
+        for (int from = 0; from < persons.size(); from += batchSize) {
+            List<Person> chunk = persons.subList(from, Math.min(from + batchSize, persons.size()));
+            while (!chunk.isEmpty()) {
+                chunk = insertChunk(chunk, drawn, redrawn);
+            }
+        }
+        return redrawn;
+    }
+
+    /** Inserts one batch and returns the rows still to insert: the rejected ones redrawn, plus any never run. */
+    private List<Person> insertChunk(List<Person> chunk, Set<String> drawn, Map<String, String> redrawn) {
+        try {
+            insert(chunk);
+            return List.of();
+        } catch (DuplicateKeyException e) {
+            // drivers either carry on past a failed row (H2) or stop at it; the counts tell which
+            int[] counts = e.getCause() instanceof BatchUpdateException b ? b.getUpdateCounts() : new int[0];
+            List<Person> retry = new ArrayList<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                Person p = chunk.get(i);
+                boolean rejected = i < counts.length ? counts[i] == Statement.EXECUTE_FAILED : i == counts.length;
+                if (rejected) {
+                    Person fresh = withFreshId(p, drawn);
+                    redrawn.put(p.getId(), fresh.getId());
+                    retry.add(fresh);
+                } else if (i >= counts.length) {
+                    retry.add(p);
+                }
+            }
+            log.debug("Redrawing {} person ids that were already taken", redrawn.size());
+            return retry;
+        }
+    }
+
+    /**
+     * Writes people whose ids were handed out elsewhere, one JDBC batch per kind inside
+     * one transaction: ADDs are inserted, and one whose id turns out to be taken gets a
+     * new one rather than overwriting that row; UPDATEs are upserted with MERGE, REMOVEs
+     * are deleted. Ids must be distinct within the batch.
+     *
+     * @return old id to new id for every ADD that had to be redrawn
+     */
+    Map<String, String> writeAll(List<PersonMutation> batch) {
+        List<Person> inserts = new ArrayList<>();
+        List<Person> upserts = new ArrayList<>();
+        List<Person> deletes = new ArrayList<>();
+        for (PersonMutation m : batch) {
+            switch (m.kind()) {
+                case ADD -> inserts.add(m.person());
+                case UPDATE -> upserts.add(m.person());
+                case REMOVE -> deletes.add(m.person());
+            }
+        }
+        Set<String> ids = new HashSet<>();
+        batch.forEach(m -> ids.add(m.person().getId()));
+        Map<String, String> redrawn = tx.execute(status -> {
+            Map<String, String> moved = insertRedrawing(inserts, ids);
+            write(UPSERT, upserts);
+            if (!deletes.isEmpty()) {
+                jdbc.batchUpdate(DELETE, deletes, batchSize, (ps, p) -> ps.setString(1, p.getId()));
+            }
+            return moved;
+        });
+        version.addAndGet(batch.size());
+        return redrawn;
+    }
+
+    private void insert(List<Person> persons) {
+        write(INSERT, persons);
+    }
+
+    private void write(String sql, List<Person> persons) {
+        if (persons.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(sql, persons, batchSize, (ps, p) -> {
+            ps.setString(1, p.getId());
+            ps.setString(2, p.getFirstName());
+            ps.setString(3, p.getLastName());
+        });
+    }
+}
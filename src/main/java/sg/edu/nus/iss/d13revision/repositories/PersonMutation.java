@@ -0,0 +1,17 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import java.util.concurrent.CompletableFuture;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+
+/** A queued write against the person store, completed once it has been applied. */
+public record PersonMutation(Kind kind, Person person, CompletableFuture<Void> done) {
+
+    public enum Kind {
+        ADD, UPDATE, REMOVE
+    }
+
+    public static PersonMutation of(Kind kind, Person person) {
+        return new PersonMutation(kind, person, new CompletableFuture<>());
+    }
+}
@@ -0,0 +1,42 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+
+/**
+ * Storage behind {@link sg.edu.nus.iss.d13revision.services.PersonService}.
+ * Chosen with person.repository=memory (default) or jdbc.
+ *
+ * Every applied mutation bumps {@link #version()} by one, whichever backend is
+ * in use, so response caches keyed on the version work the same for both.
+ */
+public interface PersonRepository {
+
+    /** A consistent view of everyone; cheap to call again while nothing changes. */
+    PersonSnapshot snapshot();
+
+    /** An earlier view if the backend still has it. */
+    Optional<PersonSnapshot> snapshotAt(long version);
+
+    long version();
+
+    Optional<Person> findById(String id);
+
+    List<Person> findByLastName(String lastName);
+
+    /** Hands every person to the action in list order without collecting them first. */
+    void forEach(Consumer<Person> action);
+
+    void apply(Kind kind, Person person);
+
+    /** Applies the mutations in order; readers see either all of them or none. */
+    void applyAll(List<PersonMutation> batch);
+
+    /** Adds many people at once, each with a fresh id. */
+    void addAll(Collection<Person> persons);
+}
@@ -0,0 +1,97 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+import sg.edu.nus.iss.d13revision.utils.PersistentHashMap;
+import sg.edu.nus.iss.d13revision.utils.PersonIds;
+
+/**
+ * One immutable version of the person store. Writers derive the next version
+ * with {@link #apply}, which shares everything but the changed path with this
+ * one, so holding on to a snapshot is cheap and it never changes under a reader.
+ * Each person keeps the position it was added at, including across updates.
+ */
+public final class PersonSnapshot {
+
+    private record Entry(long seq, Person person) {
+    }
+
+    /** The given people, in order and as they are, labelled with version. */
+    public static PersonSnapshot of(long version, List<Person> persons) {
+        PersistentHashMap<String, Entry> byId = PersistentHashMap.empty();
+        long seq = 0;
+        for (Person p : persons) {
+            byId = byId.put(p.getId(), new Entry(seq++, p));
+        }
+        return new PersonSnapshot(version, byId, seq);
+    }
+
+    private final long version;
+    private final PersistentHashMap<String, Entry> byId;
+    private final long nextSeq;
+    // built on first read; racing readers build identical lists
+    private volatile List<Person> ordered;
+
+    private PersonSnapshot(long version, PersistentHashMap<String, Entry> byId, long nextSeq) {
+        this.version = version;
+        this.byId = byId;
+        this.nextSeq = nextSeq;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public Person get(String id) {
+        Entry entry = byId.get(id);
+        return entry == null ? null : entry.person();
+    }
+
+    /** Everyone in insertion order, as an unmodifiable list. */
+    public List<Person> persons() {
+        List<Person> list = ordered;
+        if (list == null) {
+            List<Entry> entries = new ArrayList<>(byId.size());
+            byId.forEach((id, entry) -> entries.add(entry));
+            entries.sort(Comparator.comparingLong(Entry::seq));
+            list = entries.stream().map(Entry::person).toList();
+            ordered = list;
+        }
+        return list;
+    }
+
+    /** A window of {@link #persons()}; out of range bounds are clamped. */
+    public List<Person> page(int offset, int limit) {
+        List<Person> all = persons();
+        int from = Math.min(Math.max(offset, 0), all.size());
+        int to = (int) Math.min((long) from + Math.max(limit, 0), all.size());
+        return all.subList(from, to);
+    }
+
+    /** The next version with one mutation applied. */
+    public PersonSnapshot apply(Kind kind, Person p) {
+        return switch (kind) {
+            case ADD -> {
+                Person added = new Person(PersonIds.fresh(byId::containsKey), p.getFirstName(), p.getLastName());
+                yield new PersonSnapshot(version + 1, byId.put(added.getId(), new Entry(nextSeq, added)), nextSeq + 1);
+            }
+            case UPDATE -> {
+                // swapped in place, so there is no moment where the person is missing
+                Entry existing = byId.get(p.getId());
+                long seq = existing != null ? existing.seq() : nextSeq;
+                Person updated = new Person(p.getId(), p.getFirstName(), p.getLastName());
+                yield new PersonSnapshot(version + 1, byId.put(p.getId(), new Entry(seq, updated)),
+                        existing != null ? nextSeq : nextSeq + 1);
+            }
+            case REMOVE -> new PersonSnapshot(version + 1, byId.remove(p.getId()), nextSeq);
+        };
+    }
+}
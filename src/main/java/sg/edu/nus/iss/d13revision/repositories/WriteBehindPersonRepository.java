@@ -0,0 +1,428 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+import sg.edu.nus.iss.d13revision.utils.PersonIds;
+
+/**
+ * Write-behind layer in front of the JDBC store (person.write-behind.enabled).
+ *
+ * A write only records the person's latest state in a pending map and returns;
+ * later writes to the same id overwrite the pending entry, so an add followed by
+ * two edits reaches the database as one row. A background thread flushes the
+ * pending entries in batches, at the latest durability-window after they were
+ * first written, and once more on shutdown. Reads see the backend with the
+ * pending entries laid over it; single lookups go through a bounded W-TinyLFU
+ * cache.
+ *
+ * Writes the table could never take are refused up front. If a chunk still
+ * fails on its data, it is written again one row at a time, and rows that fail
+ * on their own are dead-lettered (logged, kept in a short list and counted) so
+ * they cannot hold up every later flush.
+ */
+@Repository
+@Primary
+@ConditionalOnExpression("${person.write-behind.enabled:false} and '${person.repository:memory}' == 'jdbc'")
+@Slf4j
+public class WriteBehindPersonRepository implements PersonRepository, MeterBinder {
+
+    /**
+     * The latest state of one person not yet in the backend: an upsert, a plain insert
+     * when the person was added here, or a delete when removed.
+     */
+    private record Pending(long seq, boolean added, boolean removed, Person person, long dirtySince) {
+
+        Kind kind() {
+            return removed ? Kind.REMOVE : added ? Kind.ADD : Kind.UPDATE;
+        }
+
+        PersonMutation mutation() {
+            return new PersonMutation(kind(), person, null);
+        }
+    }
+
+    private static final int DEAD_LETTERS_KEPT = 100;
+
+    private final JdbcPersonRepository backend;
+
+    @Value("${person.write-behind.durability-window:1s}")
+    private Duration durabilityWindow = Duration.ofSeconds(1);
+
+    @Value("${person.write-behind.batch-size:500}")
+    private int batchSize = 500;
+
+    // beyond this many pending writes, writers flush themselves instead of queueing more
+    @Value("${person.write-behind.max-pending:10000}")
+    private int maxPending = 10_000;
+
+    @Value("${person.write-behind.cache-size:10000}")
+    private long cacheSize = 10_000;
+
+    private final Object lock = new Object();
+    // guarded by lock
+    private final Map<String, Pending> pending = new HashMap<>();
+    private long nextSeq;
+    private volatile long version;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicLong flushFailures = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    // the last few writes given up on, newest last; guarded by itself
+    private final Deque<PersonMutation> deadLetters = new ArrayDeque<>();
+    private Cache<String, Person> cache;
+    private ScheduledExecutorService flusher;
+    private volatile PersonSnapshot cached;
+    private Timer flushTimer;
+
+    public WriteBehindPersonRepository(JdbcPersonRepository backend) {
+        this.backend = backend;
+        this.version = backend.version();
+    }
+
+    @PostConstruct
+    public void start() {
+        cache = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "person-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        // checking twice per window keeps every write's time in memory under the window
+        long period = Math.max(1, durabilityWindow.toMillis() / 2);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        log.info("Write-behind stopped with {} writes unflushed", pendingCount());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "persons");
+        Gauge.builder("person.cache.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of person lookups answered from the write-behind cache")
+                .register(registry);
+        Gauge.builder("person.write_behind.pending", this, WriteBehindPersonRepository::pendingCount)
+                .description("Writes accepted but not yet in the backend")
+                .register(registry);
+        Gauge.builder("person.write_behind.lag", this, r -> r.lag().toNanos() / 1e9)
+                .description("Age of the oldest write not yet in the backend")
+                .baseUnit("seconds")
+                .register(registry);
+        FunctionCounter.builder("person.write_behind.flush.failures", flushFailures, AtomicLong::get)
+                .description("Flushes that failed and will be retried")
+                .register(registry);
+        FunctionCounter.builder("person.write_behind.dead_letters", deadLettered, AtomicLong::get)
+                .description("Writes the backend rejected on their data and that were dropped")
+                .register(registry);
+        flushTimer = Timer.builder("person.write_behind.flush")
+                .description("Time to write one batch of pending writes to the backend")
+                .register(registry);
+    }
+
+    @Override
+    public PersonSnapshot snapshot() {
+        PersonSnapshot snapshot = cached;
+        if (snapshot == null || snapshot.version() != version) {
+            snapshot = overlay();
+            cached = snapshot;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public Optional<PersonSnapshot> snapshotAt(long version) {
+        PersonSnapshot snapshot = snapshot();
+        return snapshot.version() == version ? Optional.of(snapshot) : Optional.empty();
+    }
+
+    @Override
+    public long version() {
+        return version;
+    }
+
+    @Override
+    public Optional<Person> findById(String id) {
+        Pending p;
+        synchronized (lock) {
+            p = pending.get(id);
+        }
+        if (p != null) {
+            return p.removed() ? Optional.empty() : Optional.of(p.person());
+        }
+        return Optional.ofNullable(cache.get(id, k -> backend.findById(k).orElse(null)));
+    }
+
+    @Override
+    public List<Person> findByLastName(String lastName) {
+        List<Pending> overlay = pendingInOrder();
+        List<Person> found = new ArrayList<>(backend.findByLastName(lastName));
+        for (Pending p : overlay) {
+            found.removeIf(existing -> existing.getId().equals(p.person().getId()));
+            if (!p.removed() && lastName.equals(p.person().getLastName())) {
+                found.add(p.person());
+            }
+        }
+        return found;
+    }
+
+    /** Flushes first so the backend can stream everything straight from its own storage. */
+    @Override
+    public void forEach(Consumer<Person> action) {
+        flush();
+        backend.forEach(action);
+    }
+
+    @Override
+    public void apply(Kind kind, Person person) {
+        applyAll(List.of(new PersonMutation(kind, person, null)));
+    }
+
+    @Override
+    public void applyAll(List<PersonMutation> batch) {
+        batch.forEach(WriteBehindPersonRepository::validate);
+        int size;
+        synchronized (lock) {
+            long now = System.nanoTime();
+            for (PersonMutation m : batch) {
+                Person p = m.person();
+                // new ids are only checked against what is pending, so a write never waits on the
+                // database; the flush inserts them and redraws the rare one the table already has
+                Person stored = switch (m.kind()) {
+                    case ADD -> new Person(PersonIds.fresh(pending::containsKey), p.getFirstName(), p.getLastName());
+                    case UPDATE, REMOVE -> new Person(p.getId(), p.getFirstName(), p.getLastName());
+                };
+                Pending previous = pending.get(stored.getId());
+                long dirtySince = previous != null ? previous.dirtySince() : now;
+                boolean added = previous != null ? previous.added() : m.kind() == Kind.ADD;
+                pending.put(stored.getId(),
+                        new Pending(nextSeq++, added, m.kind() == Kind.REMOVE, stored, dirtySince));
+                if (m.kind() == Kind.REMOVE) {
+                    cache.invalidate(stored.getId());
+                } else {
+                    cache.put(stored.getId(), stored);
+                }
+            }
+            version += batch.size();
+            size = pending.size();
+        }
+        if (size >= maxPending) {
+            flush();
+        } else if (size >= batchSize) {
+            try {
+                flusher.execute(this::flushQuietly);
+            } catch (RejectedExecutionException e) {
+                // shutting down, the final flush picks these up
+            }
+        }
+    }
+
+    @Override
+    public void addAll(Collection<Person> persons) {
+        applyAll(persons.stream().map(p -> new PersonMutation(Kind.ADD, p, null)).toList());
+    }
+
+    int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    /** How long the oldest pending write has waited for the backend. */
+    Duration lag() {
+        long oldest;
+        synchronized (lock) {
+            oldest = pending.values().stream().mapToLong(Pending::dirtySince).min().orElse(0);
+        }
+        return oldest == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - oldest);
+    }
+
+    /** Writes everything pending to the backend. Safe to call from any thread. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<Pending> toWrite = pendingInOrder();
+            for (int from = 0; from < toWrite.size(); from += batchSize) {
+                List<Pending> chunk = toWrite.subList(from, Math.min(from + batchSize, toWrite.size()));
+                Timer.Sample sample = Timer.start();
+                Map<String, String> redrawn = new HashMap<>();
+                List<Pending> rejected = write(chunk, redrawn);
+                if (flushTimer != null) {
+                    sample.stop(flushTimer);
+                }
+                synchronized (lock) {
+                    // readers may hold a state that never reached the table
+                    rejected.forEach(p -> cache.invalidate(p.person().getId()));
+                    // a reader that missed the pending delete may have cached the row it loaded just
+                    // before; drop it before the pending entry stops shadowing it
+                    chunk.stream().filter(Pending::removed).forEach(p -> cache.invalidate(p.person().getId()));
+                    // a write that landed during the flush replaced the entry and stays pending,
+                    // now as an upsert since the row exists
+                    for (Pending p : chunk) {
+                        String id = p.person().getId();
+                        if (!pending.remove(id, p) && !rejected.contains(p)) {
+                            pending.computeIfPresent(id, (k, q) -> q.added()
+                                    ? new Pending(q.seq(), false, q.removed(), q.person(), q.dirtySince())
+                                    : q);
+                        }
+                    }
+                    redrawn.forEach(this::moveRedrawn);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes one chunk and returns the entries dead-lettered. Every pending entry is the
+     * full latest state, so a batched insert, upsert or delete is enough; people added
+     * here are inserted, so a clashing id is redrawn, not overwritten. A data error fails
+     * the whole batch, so the rows are then tried one by one; anything else (the database
+     * being away, say) is thrown and the chunk stays pending.
+     */
+    private List<Pending> write(List<Pending> chunk, Map<String, String> redrawn) {
+        try {
+            redrawn.putAll(backend.writeAll(chunk.stream().map(Pending::mutation).toList()));
+            return List.of();
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Write-behind batch of {} rejected, retrying row by row: {}", chunk.size(), e.getMessage());
+        }
+        List<Pending> rejected = new ArrayList<>();
+        for (Pending p : chunk) {
+            try {
+                redrawn.putAll(backend.writeAll(List.of(p.mutation())));
+            } catch (DataIntegrityViolationException e) {
+                rejected.add(p);
+                deadLetter(p.mutation(), e);
+            }
+        }
+        return rejected;
+    }
+
+    private void deadLetter(PersonMutation m, DataIntegrityViolationException e) {
+        deadLettered.incrementAndGet();
+        log.error("Write-behind dropped {} of person {}: {}", m.kind(), m.person().getId(),
+                e.getMostSpecificCause().toString());
+        synchronized (deadLetters) {
+            if (deadLetters.size() == DEAD_LETTERS_KEPT) {
+                deadLetters.removeFirst();
+            }
+            deadLetters.addLast(m);
+        }
+    }
+
+    /** The most recent writes given up on, oldest first. */
+    List<PersonMutation> deadLetters() {
+        synchronized (deadLetters) {
+            return List.copyOf(deadLetters);
+        }
+    }
+
+    /** Refuses what the table could never store, before it is accepted and has to be flushed. */
+    private static void validate(PersonMutation m) {
+        Person p = m.person();
+        if (m.kind() != Kind.ADD && (p.getId() == null || p.getId().length() > JdbcPersonRepository.MAX_ID_LENGTH)) {
+            throw new IllegalArgumentException("Person id must be 1 to " + JdbcPersonRepository.MAX_ID_LENGTH
+                    + " characters");
+        }
+        if (tooLong(p.getFirstName()) || tooLong(p.getLastName())) {
+            throw new IllegalArgumentException("Names are limited to " + JdbcPersonRepository.MAX_NAME_LENGTH
+                    + " characters");
+        }
+    }
+
+    private static boolean tooLong(String name) {
+        return name != null && name.length() > JdbcPersonRepository.MAX_NAME_LENGTH;
+    }
+
+    /** The backend stored a new person under another id; follow it there. Called holding lock. */
+    private void moveRedrawn(String oldId, String newId) {
+        log.warn("Person id {} was already taken in the database, stored as {}", oldId, newId);
+        cache.invalidate(oldId);
+        Pending later = pending.remove(oldId);
+        if (later != null) {
+            Person moved = new Person(newId, later.person().getFirstName(), later.person().getLastName());
+            pending.put(newId, new Pending(later.seq(), false, later.removed(), moved, later.dirtySince()));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            flushFailures.incrementAndGet();
+            log.warn("Write-behind flush failed, {} writes still pending: {}", pendingCount(), e.toString());
+        }
+    }
+
+    private List<Pending> pendingInOrder() {
+        List<Pending> copy;
+        synchronized (lock) {
+            copy = new ArrayList<>(pending.values());
+        }
+        copy.sort(Comparator.comparingLong(Pending::seq));
+        return copy;
+    }
+
+    private PersonSnapshot overlay() {
+        long v;
+        List<Pending> overlay;
+        synchronized (lock) {
+            v = version;
+            overlay = new ArrayList<>(pending.values());
+        }
+        overlay.sort(Comparator.comparingLong(Pending::seq));
+        // pending is read before the backend: anything flushed in between is in the backend
+        // already, and replaying an upsert or delete on top of it changes nothing
+        PersonSnapshot view = backend.snapshot();
+        for (Pending p : overlay) {
+            view = view.apply(p.removed() ? Kind.REMOVE : Kind.UPDATE, p.person());
+        }
+        return PersonSnapshot.of(v, view.persons());
+    }
+}
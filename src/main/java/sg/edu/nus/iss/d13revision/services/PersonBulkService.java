@@ -0,0 +1,256 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.models.PersonForm;
+import sg.edu.nus.iss.d13revision.utils.CsvLine;
+import sg.edu.nus.iss.d13revision.utils.RecordReader;
+
+/**
+ * Bulk CSV / NDJSON import and export.
+ *
+ * Imports read the upload record by record (a quoted CSV field may span lines,
+ * and no record may grow past a set length) and hand chunks of records to a
+ * fork-join pool for parsing and validation. Only a few chunks are in flight at once and
+ * finished chunks are added to the store in upload order, so memory stays flat
+ * however large the file is. Exports write each person as the store hands it
+ * over, without building a list first.
+ */
+@Service
+@Slf4j
+public class PersonBulkService {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    public record RowError(long line, String reason) {
+    }
+
+    public record ImportResult(long imported, long rejected, List<RowError> errors) {
+    }
+
+    /** One record and the line it starts on; text is null for a record over the length limit. */
+    private record Row(long line, String text) {
+    }
+
+    private record ChunkResult(List<Person> valid, List<RowError> errors) {
+    }
+
+    /** Where firstName and lastName sit in a CSV row. */
+    private record Columns(int firstName, int lastName) {
+    }
+
+    @Autowired
+    PersonService perSvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${error.message:First Name & Last Name are required!}")
+    String errorMessage = "First Name & Last Name are required!";
+
+    @Value("${person.import.chunk-size:5000}")
+    int chunkSize = 5000;
+
+    // 0 means one worker per core
+    @Value("${person.import.parallelism:0}")
+    int parallelism;
+
+    // only the first few bad rows are reported back, the rest are just counted
+    @Value("${person.import.max-reported-errors:100}")
+    int maxReportedErrors = 100;
+
+    @Value("${person.import.max-record-length:65536}")
+    int maxRecordLength = 65536;
+
+    private ForkJoinPool pool;
+    private ObjectReader formReader;
+    private ObjectWriter personWriter;
+
+    @PostConstruct
+    void start() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(workers);
+        // exported rows carry an id, which an import ignores
+        formReader = objectMapper.readerFor(PersonForm.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        personWriter = objectMapper.writerFor(Person.class);
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdown();
+    }
+
+    public ImportResult importFrom(InputStream in, Format format) throws IOException {
+        RecordReader reader = new RecordReader(new InputStreamReader(in, StandardCharsets.UTF_8), maxRecordLength,
+                format == Format.CSV);
+        Deque<ForkJoinTask<ChunkResult>> inFlight = new ArrayDeque<>();
+        int maxInFlight = pool.getParallelism() * 2;
+        long[] counts = new long[2];
+        List<RowError> errors = new ArrayList<>();
+
+        Columns columns = null;
+        List<Row> rows = new ArrayList<>(chunkSize);
+        String record;
+        while ((record = reader.next()) != null) {
+            if (format == Format.CSV && reader.startLine() == 1 && !reader.oversized()) {
+                columns = header(record);
+                if (columns != null) {
+                    continue;
+                }
+            }
+            rows.add(new Row(reader.startLine(), reader.oversized() ? null : record));
+            if (rows.size() == chunkSize) {
+                List<Row> chunk = rows;
+                Columns cols = columns;
+                inFlight.add(pool.submit(() -> parse(chunk, format, cols)));
+                rows = new ArrayList<>(chunkSize);
+                if (inFlight.size() >= maxInFlight) {
+                    apply(inFlight.poll().join(), counts, errors);
+                }
+            }
+        }
+        if (!rows.isEmpty()) {
+            List<Row> chunk = rows;
+            Columns cols = columns;
+            inFlight.add(pool.submit(() -> parse(chunk, format, cols)));
+        }
+        while (!inFlight.isEmpty()) {
+            apply(inFlight.poll().join(), counts, errors);
+        }
+
+        log.info("Imported {} persons from {}, rejected {}", counts[0], format, counts[1]);
+        return new ImportResult(counts[0], counts[1], errors);
+    }
+
+    public void exportTo(OutputStream out, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 16 * 1024);
+        StringBuilder row = new StringBuilder();
+        if (format == Format.CSV) {
+            writer.write("id,firstName,lastName\n");
+        }
+        try {
+            perSvc.forEach(p -> {
+                try {
+                    if (format == Format.CSV) {
+                        row.setLength(0);
+                        CsvLine.append(row, p.getId()).append(',');
+                        CsvLine.append(row, p.getFirstName()).append(',');
+                        CsvLine.append(row, p.getLastName()).append('\n');
+                        writer.append(row);
+                    } else {
+                        writer.write(personWriter.writeValueAsString(p));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void apply(ChunkResult result, long[] counts, List<RowError> errors) {
+        if (!result.valid().isEmpty()) {
+            perSvc.addPersons(result.valid());
+        }
+        counts[0] += result.valid().size();
+        counts[1] += result.errors().size();
+        for (RowError error : result.errors()) {
+            if (errors.size() >= maxReportedErrors) {
+                break;
+            }
+            errors.add(error);
+        }
+    }
+
+    private ChunkResult parse(List<Row> rows, Format format, Columns columns) {
+        List<Person> valid = new ArrayList<>(rows.size());
+        List<RowError> errors = new ArrayList<>();
+        for (Row row : rows) {
+            String line = row.text();
+            if (line == null) {
+                errors.add(new RowError(row.line(), "Row longer than " + maxRecordLength + " characters"));
+            } else if (!line.isBlank()) {
+                try {
+                    PersonForm form = format == Format.CSV ? fromCsv(line, columns) : formReader.readValue(line);
+                    if (form.isComplete()) {
+                        valid.add(new Person(form.getFirstName(), form.getLastName()));
+                    } else {
+                        errors.add(new RowError(row.line(), errorMessage));
+                    }
+                } catch (JsonProcessingException e) {
+                    errors.add(new RowError(row.line(), "Malformed JSON: " + e.getOriginalMessage()));
+                } catch (RuntimeException e) {
+                    errors.add(new RowError(row.line(), e.getMessage()));
+                }
+            }
+        }
+        return new ChunkResult(valid, errors);
+    }
+
+    private static PersonForm fromCsv(String line, Columns columns) {
+        List<String> fields = CsvLine.split(line);
+        if (columns == null) {
+            // no header: firstName,lastName or, as exported, id,firstName,lastName
+            columns = fields.size() >= 3 ? new Columns(1, 2) : new Columns(0, 1);
+        }
+        PersonForm form = new PersonForm();
+        if (columns.firstName() < fields.size()) {
+            form.setFirstName(fields.get(columns.firstName()));
+        }
+        if (columns.lastName() < fields.size()) {
+            form.setLastName(fields.get(columns.lastName()));
+        }
+        return form;
+    }
+
+    /** Column positions if the line is a header naming firstName and lastName, otherwise null. */
+    private static Columns header(String line) {
+        List<String> fields;
+        try {
+            fields = CsvLine.split(line);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<String> names = fields.stream()
+                .map(n -> n.trim().replace("_", "").toLowerCase(Locale.ROOT))
+                .toList();
+        int first = names.indexOf("firstname");
+        int last = names.indexOf("lastname");
+        return first >= 0 && last >= 0 ? new Columns(first, last) : null;
+    }
+}
@@ -1,42 +1,146 @@
 package sg.edu.nus.iss.d13revision.services;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.profiling.PersonStoreEvent;
+import sg.edu.nus.iss.d13revision.repositories.InMemoryPersonRepository;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+import sg.edu.nus.iss.d13revision.repositories.PersonRepository;
+import sg.edu.nus.iss.d13revision.repositories.PersonSnapshot;
 
 @Service
 public class PersonService {
-    private List<Person> persons = new ArrayList<Person>();
+    // Where people are kept, chosen by person.repository (memory or jdbc)
+    private final PersonRepository repository;
+
+    // person.store.single-writer=true routes every write through one writer thread
+    @Value("${person.store.single-writer:false}")
+    private boolean singleWriter;
+
+    @Value("${person.store.ring-capacity:4096}")
+    private int ringCapacity;
+
+    @Value("${person.store.batch-size:256}")
+    private int batchSize;
+
+    private PersonWritePipeline pipeline;
 
     public PersonService() {
-        persons.add(new Person("Mark", "Zuckerberg"));
-        persons.add(new Person("Elon", "Musk"));
+        this(new InMemoryPersonRepository());
+    }
+
+    @Autowired
+    public PersonService(PersonRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void startWriter() {
+        if (singleWriter) {
+            pipeline = new PersonWritePipeline(ringCapacity, batchSize, repository::applyAll);
+        }
+    }
+
+    @PreDestroy
+    void stopWriter() {
+        if (pipeline != null) {
+            pipeline.close();
+        }
     }
 
+    /** The current people as an unmodifiable list that later writes never change. */
     public List<Person> getPersons() {
-        return this.persons;
+        return repository.snapshot().persons();
+    }
+
+    public PersonSnapshot snapshot() {
+        return repository.snapshot();
+    }
+
+    /** A recent version of the store, or empty once it has aged out. */
+    public Optional<PersonSnapshot> snapshotAt(long version) {
+        return repository.snapshotAt(version);
+    }
+
+    public Optional<Person> findById(String id) {
+        return repository.findById(id);
+    }
+
+    public List<Person> findByLastName(String lastName) {
+        return repository.findByLastName(lastName);
+    }
+
+    public void forEach(Consumer<Person> action) {
+        repository.forEach(action);
+    }
+
+    // Bumped on every mutation so response caches can tell when their copy is stale
+    public long getVersion() {
+        return repository.version();
     }
 
     public void addPerson(Person p) {
-        persons.add(new Person(p.getFirstName(), p.getLastName()));
+        PersonStoreEvent event = new PersonStoreEvent();
+        event.begin();
+        addPersonAsync(p).join();
+        event.finish("add", 1, pipeline != null, repository.version());
     }
 
     public void updatePerson(Person p) {
-        Person foundPerson = persons.stream().filter(o -> o.getId().equals(p.getId())).findAny().orElse(null);
+        PersonStoreEvent event = new PersonStoreEvent();
+        event.begin();
+        updatePersonAsync(p).join();
+        event.finish("update", 1, pipeline != null, repository.version());
+    }
 
-        Person updatedPerson = new Person();
-        updatedPerson.setId(p.getId());
-        updatedPerson.setFirstName(p.getFirstName());
-        updatedPerson.setLastName(p.getLastName());
+    public void removePerson(Person p) {
+        PersonStoreEvent event = new PersonStoreEvent();
+        event.begin();
+        removePersonAsync(p).join();
+        event.finish("remove", 1, pipeline != null, repository.version());
+    }
 
-        persons.remove(foundPerson);
-        persons.add(new Person(updatedPerson.getId(), updatedPerson.getFirstName(), updatedPerson.getLastName()));
+    /** Adds many people in one go, each with a fresh id. */
+    public void addPersons(Collection<Person> persons) {
+        PersonStoreEvent event = new PersonStoreEvent();
+        event.begin();
+        if (pipeline == null) {
+            repository.addAll(persons);
+        } else {
+            CompletableFuture.allOf(persons.stream().map(this::addPersonAsync).toArray(CompletableFuture[]::new))
+                    .join();
+        }
+        event.finish("addAll", persons.size(), pipeline != null, repository.version());
     }
 
-    public void removePerson(Person p) {
-        Person foundPerson = persons.stream().filter(o -> o.getId().equals(p.getId())).findAny().orElse(null);
+    // The *Async variants complete once the write is visible to readers
+    public CompletableFuture<Void> addPersonAsync(Person p) {
+        return write(Kind.ADD, p);
+    }
+
+    public CompletableFuture<Void> updatePersonAsync(Person p) {
+        return write(Kind.UPDATE, p);
+    }
+
+    public CompletableFuture<Void> removePersonAsync(Person p) {
+        return write(Kind.REMOVE, p);
+    }
 
-        persons.remove(foundPerson);
+    private CompletableFuture<Void> write(Kind kind, Person p) {
+        if (pipeline != null) {
+            return pipeline.submit(PersonMutation.of(kind, p));
+        }
+        repository.apply(kind, p);
+        return CompletableFuture.completedFuture(null);
     }
 }
@@ -0,0 +1,162 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation;
+import sg.edu.nus.iss.d13revision.utils.MpscRingBuffer;
+
+/**
+ * Funnels every mutation through one writer thread. Request threads only offer
+ * to a lock-free ring buffer; the writer drains whatever has accumulated,
+ * applies it as one batch and completes each mutation's future, so callers can
+ * wait for their own write without holding any lock.
+ *
+ * Once stopped, every mutation still queued is failed rather than left hanging:
+ * by the writer on its way out, whatever it exited on, or by {@link #close()}
+ * when the writer is stuck and will not exit in time.
+ */
+@Slf4j
+public class PersonWritePipeline implements AutoCloseable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int SPINS_BEFORE_PARK = 100;
+
+    private final MpscRingBuffer<PersonMutation> ring;
+    private final int batchSize;
+    private final Consumer<List<PersonMutation>> applier;
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile boolean writerIdle;
+    // set once nothing more will be applied; the ring's monitor guards it and hands the ring over
+    private boolean stopped;
+
+    public PersonWritePipeline(int capacity, int batchSize, Consumer<List<PersonMutation>> applier) {
+        this.ring = new MpscRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.applier = applier;
+        this.writer = new Thread(this::writeLoop, "person-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public CompletableFuture<Void> submit(PersonMutation mutation) {
+        if (!running) {
+            mutation.done().completeExceptionally(new IllegalStateException("Person writer is stopped"));
+            return mutation.done();
+        }
+        int spins = 0;
+        while (!ring.offer(mutation)) {
+            // full: the writer is behind, back off until it frees a slot
+            if (!running) {
+                mutation.done().completeExceptionally(new IllegalStateException("Person writer is stopped"));
+                return mutation.done();
+            }
+            if (++spins < SPINS_BEFORE_PARK) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(50_000);
+            }
+        }
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+        if (!running) {
+            // stopped while offering: the writer may have left before seeing this mutation
+            synchronized (ring) {
+                if (stopped) {
+                    failQueued();
+                }
+            }
+        }
+        return mutation.done();
+    }
+
+    public int backlog() {
+        return ring.size();
+    }
+
+    private void writeLoop() {
+        List<PersonMutation> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !ring.isEmpty()) {
+                synchronized (ring) {
+                    if (stopped) {
+                        // close() gave up waiting and failed the rest
+                        return;
+                    }
+                    ring.drain(batch::add, batchSize);
+                }
+                if (batch.isEmpty()) {
+                    writerIdle = true;
+                    if (ring.isEmpty() && running) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    writerIdle = false;
+                    continue;
+                }
+                applyBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            running = false;
+            stop();
+        }
+    }
+
+    private void applyBatch(List<PersonMutation> batch) {
+        try {
+            applier.accept(batch);
+            for (PersonMutation m : batch) {
+                m.done().complete(null);
+            }
+        } catch (Throwable e) {
+            log.error("Failed to apply batch of {} person mutations", batch.size(), e);
+            for (PersonMutation m : batch) {
+                m.done().completeExceptionally(e);
+            }
+            if (e instanceof Error error) {
+                // not safe to carry on; the writer stops and fails everything queued behind
+                throw error;
+            }
+        }
+    }
+
+    /** Stops accepting work once everything already queued has been applied. */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            log.warn("Person writer did not finish within 10s, failing {} queued mutations", ring.size());
+        }
+        // a no-op if the writer already stopped; otherwise takes the ring from it
+        stop();
+    }
+
+    /**
+     * Ends consumption and fails whatever is still queued. Consumers take turns on
+     * the ring's monitor, so it only ever has one at a time.
+     */
+    private void stop() {
+        synchronized (ring) {
+            stopped = true;
+            failQueued();
+        }
+    }
+
+    private void failQueued() {
+        ring.drain(m -> m.done().completeExceptionally(new IllegalStateException("Person writer is stopped")),
+                Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,192 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.Yaml;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import lombok.extern.slf4j.Slf4j;
+import sg.edu.nus.iss.d13revision.profiling.ReferenceDataEvent;
+
+/**
+ * Random nations and currencies from the same data files Faker ships
+ * (en/nation.yml, en/currency.yml), without going through Faker per value.
+ *
+ * The files are read once into plain arrays of pre-encoded strings. A record
+ * is a handful of random array indexes, and its values are written straight
+ * to the response's {@link JsonGenerator}, so a request builds no tree and
+ * copies no strings. As with Faker, every attribute is an independent pick.
+ */
+@Component
+@Slf4j
+public class ReferenceDataGenerator {
+
+    private static final SerializedString NATIONALITY = new SerializedString("nationality");
+    private static final SerializedString CAPITAL_CITY = new SerializedString("capitalCity");
+    private static final SerializedString FLAG = new SerializedString("flag");
+    private static final SerializedString LANGUAGE = new SerializedString("language");
+    private static final SerializedString NAME = new SerializedString("name");
+    private static final SerializedString CODE = new SerializedString("code");
+
+    // SplittableRandom is not thread-safe, so each thread splits off its own
+    private static final ThreadLocal<SplittableRandom> RANDOM = ThreadLocal
+            .withInitial(() -> new SplittableRandom(ThreadLocalRandom.current().nextLong()));
+
+    private final SerializedString[] nationalities;
+    private final SerializedString[] capitalCities;
+    private final SerializedString[] flags;
+    private final SerializedString[] languages;
+    private final SerializedString[] currencyNames;
+    private final SerializedString[] currencyCodes;
+
+    public ReferenceDataGenerator() {
+        Map<String, Object> nation = load("en/nation.yml", "nation");
+        Map<String, Object> currency = load("en/currency.yml", "currency");
+
+        nationalities = strings(nation.get("nationality"));
+        capitalCities = strings(nation.get("capital_city"));
+        languages = strings(nation.get("language"));
+        currencyNames = strings(currency.get("name"));
+        currencyCodes = strings(currency.get("code"));
+
+        // flags are stored as lists of UTF-8 bytes, decode them once here
+        List<?> flagBytes = (List<?>) nation.get("flag");
+        flags = new SerializedString[flagBytes.size()];
+        for (int i = 0; i < flags.length; i++) {
+            List<?> bytes = (List<?>) flagBytes.get(i);
+            byte[] utf8 = new byte[bytes.size()];
+            for (int b = 0; b < utf8.length; b++) {
+                utf8[b] = ((Number) bytes.get(b)).byteValue();
+            }
+            flags[i] = new SerializedString(new String(utf8, StandardCharsets.UTF_8));
+        }
+        log.debug("Loaded {} nationalities, {} capitals, {} flags, {} languages, {} currencies",
+                nationalities.length, capitalCities.length, flags.length, languages.length, currencyCodes.length);
+    }
+
+    /** count random nations, limited to fields when given; serialised on write. */
+    public JsonSerializable nations(int count, Set<String> fields) {
+        boolean nationality = wants(fields, "nationality");
+        boolean capitalCity = wants(fields, "capitalCity");
+        boolean flag = wants(fields, "flag");
+        boolean language = wants(fields, "language");
+        return new Records("nations", count, fields, (gen, random) -> {
+            if (nationality) {
+                gen.writeFieldName(NATIONALITY);
+                gen.writeString(pick(nationalities, random));
+            }
+            if (capitalCity) {
+                gen.writeFieldName(CAPITAL_CITY);
+                gen.writeString(pick(capitalCities, random));
+            }
+            if (flag) {
+                gen.writeFieldName(FLAG);
+                gen.writeString(pick(flags, random));
+            }
+            if (language) {
+                gen.writeFieldName(LANGUAGE);
+                gen.writeString(pick(languages, random));
+            }
+        });
+    }
+
+    /** count random currencies, limited to fields when given; serialised on write. */
+    public JsonSerializable currencies(int count, Set<String> fields) {
+        boolean name = wants(fields, "name");
+        boolean code = wants(fields, "code");
+        return new Records("currencies", count, fields, (gen, random) -> {
+            if (name) {
+                gen.writeFieldName(NAME);
+                gen.writeString(pick(currencyNames, random));
+            }
+            if (code) {
+                gen.writeFieldName(CODE);
+                gen.writeString(pick(currencyCodes, random));
+            }
+        });
+    }
+
+    private interface RecordWriter {
+        void write(JsonGenerator gen, SplittableRandom random) throws IOException;
+    }
+
+    /** An array of count objects, generated while Jackson writes it. */
+    private static final class Records extends JsonSerializable.Base {
+
+        private final String dataset;
+        private final int count;
+        private final Set<String> fields;
+        private final RecordWriter writer;
+
+        Records(String dataset, int count, Set<String> fields, RecordWriter writer) {
+            this.dataset = dataset;
+            this.count = count;
+            this.fields = fields;
+            this.writer = writer;
+        }
+
+        @Override
+        public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            ReferenceDataEvent event = new ReferenceDataEvent();
+            event.begin();
+            SplittableRandom random = RANDOM.get();
+            gen.writeStartArray(this, count);
+            for (int i = 0; i < count; i++) {
+                gen.writeStartObject();
+                writer.write(gen, random);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            if (event.isEnabled()) {
+                event.finish(dataset, count, fields == null ? "" : String.join(",", fields));
+            }
+        }
+
+        @Override
+        public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+                throws IOException {
+            serialize(gen, serializers);
+        }
+    }
+
+    private static SerializedString pick(SerializedString[] table, SplittableRandom random) {
+        return table[random.nextInt(table.length)];
+    }
+
+    private static boolean wants(Set<String> fields, String field) {
+        return fields == null || fields.isEmpty() || fields.contains(field);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> load(String resource, String section) {
+        try (InputStream in = ReferenceDataGenerator.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IllegalStateException(resource + " not found on the classpath");
+            }
+            Map<String, Object> root = new Yaml().load(in);
+            Map<String, Object> faker = (Map<String, Object>) ((Map<String, Object>) root.get("en")).get("faker");
+            return (Map<String, Object>) faker.get(section);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static SerializedString[] strings(Object list) {
+        return ((List<?>) list).stream().map(v -> new SerializedString(String.valueOf(v)))
+                .toArray(SerializedString[]::new);
+    }
+}
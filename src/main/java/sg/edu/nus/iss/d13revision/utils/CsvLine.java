@@ -0,0 +1,57 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RFC 4180 fields of one record: commas separate, double quotes wrap a field
+ * that contains commas, quotes or line breaks, and "" inside quotes is a
+ * literal quote. {@link RecordReader} finds where a multi-line record ends.
+ */
+public final class CsvLine {
+
+    private CsvLine() {
+    }
+
+    public static List<String> split(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /** Appends the field, quoted only when it has to be. */
+    public static StringBuilder append(StringBuilder out, String field) {
+        if (field == null) {
+            return out;
+        }
+        if (field.indexOf(',') < 0 && field.indexOf('"') < 0 && field.indexOf('\n') < 0 && field.indexOf('\r') < 0) {
+            return out.append(field);
+        }
+        return out.append('"').append(field.replace("\"", "\"\"")).append('"');
+    }
+}
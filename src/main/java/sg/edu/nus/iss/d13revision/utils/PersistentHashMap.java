@@ -0,0 +1,330 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * Immutable hash array mapped trie. {@link #put} and {@link #remove} return a
+ * new map that shares every untouched node with the old one, so an update
+ * copies only the O(log32 n) nodes on the path to the changed key and any
+ * number of older versions can be kept around cheaply. Instances are safe to
+ * share between threads without locking.
+ */
+public final class PersistentHashMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(BitmapNode.EMPTY, 0);
+
+    private final Node root;
+    private final int size;
+
+    private PersistentHashMap(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return (V) root.get(key, hash(key), 0);
+    }
+
+    public boolean containsKey(Object key) {
+        return root.find(key, hash(key), 0) != null;
+    }
+
+    public PersistentHashMap<K, V> put(K key, V value) {
+        boolean[] added = new boolean[1];
+        Node newRoot = root.put(new Leaf(key, hash(key), value), 0, added);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot, added[0] ? size + 1 : size);
+    }
+
+    public PersistentHashMap<K, V> remove(Object key) {
+        Node newRoot = root.remove(key, hash(key), 0);
+        if (newRoot == root) {
+            return this;
+        }
+        return new PersistentHashMap<>(newRoot == null ? BitmapNode.EMPTY : newRoot, size - 1);
+    }
+
+    /** Visits every entry, in no particular order. */
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        root.forEach((BiConsumer<Object, Object>) action);
+    }
+
+    private static int hash(Object key) {
+        int h = Objects.hashCode(key);
+        // spread the high bits down, the top levels only look at the low ones
+        return h ^ (h >>> 16);
+    }
+
+    private record Leaf(Object key, int hash, Object value) {
+
+        boolean matches(Object k, int h) {
+            return hash == h && Objects.equals(key, k);
+        }
+    }
+
+    private interface Node {
+
+        Object get(Object key, int hash, int shift);
+
+        Leaf find(Object key, int hash, int shift);
+
+        Node put(Leaf leaf, int shift, boolean[] added);
+
+        /** Returns this when the key is absent, null when the node became empty. */
+        Node remove(Object key, int hash, int shift);
+
+        /** The only entry left in this node, if it holds exactly one leaf and nothing else. */
+        Leaf soleLeaf();
+
+        void forEach(BiConsumer<Object, Object> action);
+    }
+
+    /** Up to 32 slots, each a {@link Leaf} or a child {@link Node}, indexed by a bitmap. */
+    private static final class BitmapNode implements Node {
+
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        final int bitmap;
+        final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        private int index(int bit) {
+            return Integer.bitCount(bitmap & (bit - 1));
+        }
+
+        @Override
+        public Object get(Object key, int hash, int shift) {
+            Leaf leaf = find(key, hash, shift);
+            return leaf == null ? null : leaf.value();
+        }
+
+        @Override
+        public Leaf find(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[index(bit)];
+            if (slot instanceof Leaf leaf) {
+                return leaf.matches(key, hash) ? leaf : null;
+            }
+            return ((Node) slot).find(key, hash, shift + BITS);
+        }
+
+        @Override
+        public Node put(Leaf leaf, int shift, boolean[] added) {
+            int bit = 1 << ((leaf.hash() >>> shift) & MASK);
+            int idx = index(bit);
+            if ((bitmap & bit) == 0) {
+                Object[] copy = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, copy, 0, idx);
+                copy[idx] = leaf;
+                System.arraycopy(slots, idx, copy, idx + 1, slots.length - idx);
+                added[0] = true;
+                return new BitmapNode(bitmap | bit, copy);
+            }
+
+            Object slot = slots[idx];
+            Object replacement;
+            if (slot instanceof Leaf existing) {
+                if (existing.matches(leaf.key(), leaf.hash())) {
+                    if (existing.value() == leaf.value()) {
+                        return this;
+                    }
+                    replacement = leaf;
+                } else {
+                    replacement = merge(existing, leaf, shift + BITS);
+                    added[0] = true;
+                }
+            } else {
+                Node child = (Node) slot;
+                replacement = child.put(leaf, shift + BITS, added);
+                if (replacement == child) {
+                    return this;
+                }
+            }
+            return withSlot(idx, replacement);
+        }
+
+        @Override
+        public Node remove(Object key, int hash, int shift) {
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int idx = index(bit);
+            Object slot = slots[idx];
+            if (slot instanceof Leaf leaf) {
+                return leaf.matches(key, hash) ? without(bit, idx) : this;
+            }
+
+            Node child = (Node) slot;
+            Node newChild = child.remove(key, hash, shift + BITS);
+            if (newChild == child) {
+                return this;
+            }
+            if (newChild == null) {
+                return without(bit, idx);
+            }
+            // pull a lone leaf back up so the trie stays as shallow as possible
+            Leaf sole = newChild.soleLeaf();
+            return withSlot(idx, sole != null ? sole : newChild);
+        }
+
+        @Override
+        public Leaf soleLeaf() {
+            return slots.length == 1 && slots[0] instanceof Leaf leaf ? leaf : null;
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (Object slot : slots) {
+                if (slot instanceof Leaf leaf) {
+                    action.accept(leaf.key(), leaf.value());
+                } else {
+                    ((Node) slot).forEach(action);
+                }
+            }
+        }
+
+        private BitmapNode withSlot(int idx, Object slot) {
+            Object[] copy = slots.clone();
+            copy[idx] = slot;
+            return new BitmapNode(bitmap, copy);
+        }
+
+        private BitmapNode without(int bit, int idx) {
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] copy = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, copy, 0, idx);
+            System.arraycopy(slots, idx + 1, copy, idx, slots.length - idx - 1);
+            return new BitmapNode(bitmap & ~bit, copy);
+        }
+
+        private static Node merge(Leaf a, Leaf b, int shift) {
+            if (a.hash() == b.hash()) {
+                return new CollisionNode(a.hash(), new Leaf[] { a, b });
+            }
+            int ia = (a.hash() >>> shift) & MASK;
+            int ib = (b.hash() >>> shift) & MASK;
+            if (ia == ib) {
+                return new BitmapNode(1 << ia, new Object[] { merge(a, b, shift + BITS) });
+            }
+            Object[] pair = ia < ib ? new Object[] { a, b } : new Object[] { b, a };
+            return new BitmapNode((1 << ia) | (1 << ib), pair);
+        }
+    }
+
+    /** Keys whose full 32-bit hashes are equal, searched linearly. */
+    private static final class CollisionNode implements Node {
+
+        final int hash;
+        final Leaf[] leaves;
+
+        CollisionNode(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        @Override
+        public Object get(Object key, int hash, int shift) {
+            Leaf leaf = find(key, hash, shift);
+            return leaf == null ? null : leaf.value();
+        }
+
+        @Override
+        public Leaf find(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return null;
+            }
+            for (Leaf leaf : leaves) {
+                if (Objects.equals(leaf.key(), key)) {
+                    return leaf;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node put(Leaf leaf, int shift, boolean[] added) {
+            if (leaf.hash() != hash) {
+                // a different hash sharing our prefix: push this node one level down
+                BitmapNode parent = new BitmapNode(1 << ((hash >>> shift) & MASK), new Object[] { this });
+                return parent.put(leaf, shift, added);
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(leaves[i].key(), leaf.key())) {
+                    if (leaves[i].value() == leaf.value()) {
+                        return this;
+                    }
+                    Leaf[] copy = leaves.clone();
+                    copy[i] = leaf;
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            Leaf[] copy = Arrays.copyOf(leaves, leaves.length + 1);
+            copy[leaves.length] = leaf;
+            added[0] = true;
+            return new CollisionNode(hash, copy);
+        }
+
+        @Override
+        public Node remove(Object key, int hash, int shift) {
+            if (hash != this.hash) {
+                return this;
+            }
+            for (int i = 0; i < leaves.length; i++) {
+                if (Objects.equals(leaves[i].key(), key)) {
+                    if (leaves.length == 1) {
+                        return null;
+                    }
+                    Leaf[] copy = new Leaf[leaves.length - 1];
+                    System.arraycopy(leaves, 0, copy, 0, i);
+                    System.arraycopy(leaves, i + 1, copy, i, leaves.length - i - 1);
+                    return new CollisionNode(hash, copy);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public Leaf soleLeaf() {
+            return leaves.length == 1 ? leaves[0] : null;
+        }
+
+        @Override
+        public void forEach(BiConsumer<Object, Object> action) {
+            for (Leaf leaf : leaves) {
+                action.accept(leaf.key(), leaf.value());
+            }
+        }
+    }
+}
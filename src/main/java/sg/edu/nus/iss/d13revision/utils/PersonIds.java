@@ -0,0 +1,23 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Person ids are the first 8 hex digits of a random UUID, short enough that a
+ * large import will draw the same one twice. Every store takes its new ids
+ * from here, passing whatever tells it an id is already in use.
+ */
+public final class PersonIds {
+
+    private PersonIds() {
+    }
+
+    public static String fresh(Predicate<String> taken) {
+        String id;
+        do {
+            id = UUID.randomUUID().toString().substring(0, 8);
+        } while (taken.test(id));
+        return id;
+    }
+}
@@ -0,0 +1,94 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads newline-terminated records of bounded length. With CSV quoting on, a
+ * line break inside a quoted field belongs to the field, so a record may span
+ * several lines. A record longer than the limit is skipped up to the next line
+ * break and reported through {@link #oversized()} instead of being buffered
+ * whole.
+ */
+public final class RecordReader {
+
+    private final Reader in;
+    private final int maxLength;
+    private final boolean csvQuotes;
+    private final char[] buf = new char[8192];
+    private final StringBuilder record = new StringBuilder();
+    private int pos;
+    private int limit;
+    private long line;
+    private long startLine;
+    private boolean oversized;
+
+    public RecordReader(Reader in, int maxLength, boolean csvQuotes) {
+        this.in = in;
+        this.maxLength = maxLength;
+        this.csvQuotes = csvQuotes;
+    }
+
+    /** The next record without its line terminator, or null at the end of the input. */
+    public String next() throws IOException {
+        record.setLength(0);
+        startLine = line + 1;
+        oversized = false;
+        boolean quoted = false;
+        int c;
+        while ((c = read()) >= 0) {
+            if (c == '\n') {
+                line++;
+                if (!quoted || oversized) {
+                    return end();
+                }
+            } else if (c == '"' && csvQuotes) {
+                quoted = !quoted;
+            }
+            if (!oversized) {
+                if (record.length() == maxLength) {
+                    // give up on this one and resynchronise at the next line break
+                    oversized = true;
+                    record.setLength(0);
+                } else {
+                    record.append((char) c);
+                }
+            }
+        }
+        if (record.length() == 0 && !oversized && startLine > line) {
+            return null;
+        }
+        line++;
+        return end();
+    }
+
+    /** The line the last record returned by {@link #next()} started on, counting from 1. */
+    public long startLine() {
+        return startLine;
+    }
+
+    /** Whether the last record was longer than the limit; it is then returned empty. */
+    public boolean oversized() {
+        return oversized;
+    }
+
+    private String end() {
+        int len = record.length();
+        if (len > 0 && record.charAt(len - 1) == '\r') {
+            record.setLength(len - 1);
+        }
+        return record.toString();
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buf[pos++];
+    }
+}
@@ -0,0 +1,69 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Deduplicates concurrent work by key: the first caller for a key becomes the
+ * leader and does the work, everyone arriving while it is in progress follows
+ * and receives the leader's result or failure. Nothing is cached; once the
+ * leader finishes, the next caller starts a fresh flight.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    public final class Flight {
+        private final K key;
+        private final CompletableFuture<V> future;
+        private final boolean leader;
+
+        private Flight(K key, CompletableFuture<V> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        public boolean isLeader() {
+            return leader;
+        }
+
+        /** Completes with the leader's result; followers attach to this. */
+        public CompletableFuture<V> result() {
+            return future;
+        }
+
+        public void complete(V value) {
+            checkLeader();
+            inFlight.remove(key, future);
+            future.complete(value);
+        }
+
+        public void fail(Throwable error) {
+            checkLeader();
+            inFlight.remove(key, future);
+            future.completeExceptionally(error);
+        }
+
+        private void checkLeader() {
+            if (!leader) {
+                throw new IllegalStateException("Only the leader completes a flight");
+            }
+        }
+    }
+
+    /**
+     * Joins the flight for the key, starting one if none is in progress. A
+     * leader must always end the flight with complete or fail.
+     */
+    public Flight join(K key) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        return existing == null ? new Flight(key, mine, true) : new Flight(key, existing, false);
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS person (
+    id VARCHAR(36) PRIMARY KEY,
+    seq BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS person_last_name_idx ON person (last_name);
+CREATE INDEX IF NOT EXISTS person_seq_idx ON person (seq);
@@ -0,0 +1,92 @@
+package sg.edu.nus.iss.d13revision.benchmarks;
+
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.github.javafaker.Faker;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+
+/**
+ * JSON vs Smile vs CBOR for the person and nation payloads.
+ *
+ * mvnw -Pbenchmark -DskipTests verify -Djmh.args="PayloadEncoding -f 1"
+ *
+ * Payload sizes are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PayloadEncodingBenchmark {
+
+    @Param({ "json", "smile", "cbor" })
+    public String format;
+
+    @Param({ "persons", "nations" })
+    public String payload;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private Class<?> type;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        mapper = switch (format) {
+            case "smile" -> new SmileMapper();
+            case "cbor" -> new CBORMapper();
+            default -> new ObjectMapper();
+        };
+
+        Faker faker = new Faker();
+        if ("persons".equals(payload)) {
+            List<Person> persons = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                persons.add(new Person(faker.name().firstName(), faker.name().lastName()));
+            }
+            value = persons;
+            type = Person[].class;
+        } else {
+            ArrayNode nations = new ObjectMapper().createArrayNode();
+            for (int i = 0; i < 1000; i++) {
+                var nation = faker.nation();
+                nations.addObject()
+                        .put("nationality", nation.nationality())
+                        .put("capitalCity", nation.capitalCity())
+                        .put("flag", nation.flag())
+                        .put("language", nation.language());
+            }
+            value = nations;
+            type = JsonNode.class;
+        }
+
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n%s/%s: %d bytes for 1000 records%n", payload, format, encoded.length);
+    }
+
+    @Benchmark
+    public void encode() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), value);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        return mapper.readValue(encoded, type);
+    }
+}
@@ -0,0 +1,109 @@
+package sg.edu.nus.iss.d13revision.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.InMemoryPersonRepository;
+import sg.edu.nus.iss.d13revision.repositories.JdbcPersonRepository;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+import sg.edu.nus.iss.d13revision.repositories.PersonRepository;
+
+/**
+ * In-memory vs embedded H2 (file mode, pooled) for the person store.
+ *
+ * mvnw -Pbenchmark -DskipTests verify -Djmh.args="PersonRepository -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PersonRepositoryBenchmark {
+
+    @Param({ "memory", "jdbc" })
+    public String backend;
+
+    @Param({ "10000" })
+    public int size;
+
+    private PersonRepository repository;
+    private HikariDataSource dataSource;
+    private List<String> ids;
+    private List<Person> bulk;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        if ("jdbc".equals(backend)) {
+            dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl("jdbc:h2:file:./target/bench/persons-" + UUID.randomUUID() + ";QUERY_CACHE_SIZE=64");
+            dataSource.setUsername("sa");
+            dataSource.setMaximumPoolSize(8);
+            JdbcPersonRepository jdbc = new JdbcPersonRepository(new JdbcTemplate(dataSource),
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+            jdbc.init();
+            repository = jdbc;
+        } else {
+            repository = new InMemoryPersonRepository();
+        }
+
+        List<Person> seed = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            seed.add(new Person("First" + i, "Last" + (i % 500)));
+        }
+        repository.addAll(seed);
+        ids = repository.snapshot().persons().stream().map(Person::getId).toList();
+
+        bulk = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            bulk.add(new Person("Bulk" + i, "Added"));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @Benchmark
+    public Object findById() {
+        return repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size())));
+    }
+
+    @Benchmark
+    public Object findByLastName() {
+        return repository.findByLastName("Last" + ThreadLocalRandom.current().nextInt(500));
+    }
+
+    /** The list page after a write, i.e. without any snapshot reuse. */
+    @Benchmark
+    public Object updateThenList() {
+        Person p = repository.findById(ids.get(ThreadLocalRandom.current().nextInt(ids.size()))).orElseThrow();
+        repository.apply(Kind.UPDATE, new Person(p.getId(), p.getFirstName(), p.getLastName()));
+        return repository.snapshot().persons();
+    }
+
+    @Benchmark
+    public void addAllHundred() {
+        repository.addAll(bulk);
+    }
+}
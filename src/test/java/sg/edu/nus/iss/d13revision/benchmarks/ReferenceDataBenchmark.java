@@ -0,0 +1,77 @@
+package sg.edu.nus.iss.d13revision.benchmarks;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.javafaker.Faker;
+
+import sg.edu.nus.iss.d13revision.services.ReferenceDataGenerator;
+
+/**
+ * The /nations and /currencies bodies: Faker + ObjectNode (the old controller,
+ * with Faker and the mapper already reused) vs ReferenceDataGenerator.
+ *
+ * mvnw -Pbenchmark -DskipTests verify -Djmh.args="ReferenceData -f 1"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReferenceDataBenchmark {
+
+    private ObjectMapper mapper;
+    private Faker faker;
+    private ReferenceDataGenerator generator;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper();
+        faker = new Faker();
+        generator = new ReferenceDataGenerator();
+    }
+
+    @Benchmark
+    public void nationsFaker() throws Exception {
+        ArrayNode nations = mapper.createArrayNode();
+        for (int i = 0; i < 10; i++) {
+            var nation = faker.nation();
+            nations.addObject()
+                    .put("nationality", nation.nationality())
+                    .put("capitalCity", nation.capitalCity())
+                    .put("flag", nation.flag())
+                    .put("language", nation.language());
+        }
+        mapper.writeValue(OutputStream.nullOutputStream(), nations);
+    }
+
+    @Benchmark
+    public void nationsTables() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), generator.nations(10, null));
+    }
+
+    @Benchmark
+    public void currenciesFaker() throws Exception {
+        ArrayNode currencies = mapper.createArrayNode();
+        for (int i = 0; i < 20; i++) {
+            var currency = faker.currency();
+            currencies.addObject()
+                    .put("name", currency.name())
+                    .put("code", currency.code());
+        }
+        mapper.writeValue(OutputStream.nullOutputStream(), currencies);
+    }
+
+    @Benchmark
+    public void currenciesTables() throws Exception {
+        mapper.writeValue(OutputStream.nullOutputStream(), generator.currencies(20, null));
+    }
+}
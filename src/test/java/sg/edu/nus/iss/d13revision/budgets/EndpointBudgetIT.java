@@ -0,0 +1,217 @@
+package sg.edu.nus.iss.d13revision.budgets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import com.sun.management.ThreadMXBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Allocation and latency budgets per endpoint, run by failsafe in verify.
+ *
+ * MockMvc handles a request on the calling thread, so the thread's allocation
+ * counter before and after a request covers what the request itself did there,
+ * including the mock request/response and the filter chain. Work it hands to
+ * other threads, such as the single-writer pipeline or the write-behind flush,
+ * is not counted. Each endpoint is warmed up first so the JIT has settled, then
+ * measured against endpoint-budgets.properties.
+ *
+ * Only allocation gates the build. Latency depends on the machine and whatever
+ * else it is running, so the latency budgets are checked only with
+ * -Dbudgets.latency=true, on a quiet machine comparable to the one that
+ * recorded them.
+ *
+ * After a deliberate change, refresh the budgets with
+ * mvnw verify -Dbudgets.record=true, which rewrites the file from what was
+ * measured plus the headroom configured in it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@Slf4j
+public class EndpointBudgetIT {
+
+    private static final Path BUDGET_SOURCE = Path.of("src/test/resources/endpoint-budgets.properties");
+
+    record Measurement(double allocatedBytes, double p50Ms, double p99Ms) {
+    }
+
+    private static final Properties budgets = new Properties();
+    private static final Map<String, Measurement> measured = new LinkedHashMap<>();
+    private static ThreadMXBean threads;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeAll
+    public static void loadBudgets() throws IOException {
+        try (InputStream in = EndpointBudgetIT.class.getResourceAsStream("/endpoint-budgets.properties")) {
+            assertNotNull(in, "endpoint-budgets.properties is missing from src/test/resources");
+            budgets.load(in);
+        }
+        threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported(), "this JVM cannot count allocated bytes per thread");
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    /** Read-only endpoints first, so the store is the same size for each of them; writes last. */
+    private Map<String, Supplier<RequestBuilder>> endpoints() {
+        Map<String, Supplier<RequestBuilder>> endpoints = new LinkedHashMap<>();
+        endpoints.put("healthCheck", () -> get("/"));
+        endpoints.put("version", () -> get("/version"));
+        endpoints.put("nations", () -> get("/nations"));
+        endpoints.put("currencies", () -> get("/currencies"));
+        endpoints.put("personIndex", () -> get("/person/"));
+        endpoints.put("testRetrieve", () -> get("/person/testRetrieve").accept("application/json"));
+        endpoints.put("testRetrieveSmile", () -> get("/person/testRetrieve").accept("application/x-jackson-smile"));
+        endpoints.put("personList", () -> get("/person/personList"));
+        endpoints.put("addPersonForm", () -> get("/person/addPerson"));
+        endpoints.put("exportCsv", () -> get("/person/export"));
+        endpoints.put("addPerson", () -> post("/person/addPerson").param("firstName", "Budget")
+                .param("lastName", "Test"));
+        return endpoints;
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> endpointBudgets() {
+        int warmup = Integer.parseInt(budgets.getProperty("warmup-requests", "1000"));
+        int requests = Integer.parseInt(budgets.getProperty("measured-requests", "1000"));
+        return endpoints().entrySet().stream().map(e -> DynamicTest.dynamicTest(e.getKey(), () -> {
+            Measurement m = measure(e.getValue(), warmup, requests);
+            measured.put(e.getKey(), m);
+            if (!recording()) {
+                check(e.getKey(), m);
+            }
+        }));
+    }
+
+    @AfterAll
+    public static void recordBudgets() throws IOException {
+        if (recording() && !measured.isEmpty()) {
+            writeBudgets();
+        }
+    }
+
+    private Measurement measure(Supplier<RequestBuilder> request, int warmup, int requests) throws Exception {
+        for (int i = 0; i < warmup; i++) {
+            perform(request.get());
+        }
+        long thread = Thread.currentThread().getId();
+        long[] nanos = new long[requests];
+        long allocated = 0;
+        for (int i = 0; i < requests; i++) {
+            // built outside the window; only handling the request is counted
+            RequestBuilder builder = request.get();
+            long bytesBefore = threads.getThreadAllocatedBytes(thread);
+            long start = System.nanoTime();
+            perform(builder);
+            nanos[i] = System.nanoTime() - start;
+            allocated += threads.getThreadAllocatedBytes(thread) - bytesBefore;
+        }
+        Arrays.sort(nanos);
+        return new Measurement((double) allocated / requests, percentile(nanos, 50) / 1e6,
+                percentile(nanos, 99) / 1e6);
+    }
+
+    private void perform(RequestBuilder builder) throws Exception {
+        MvcResult result = mockMvc.perform(builder).andReturn();
+        int status = result.getResponse().getStatus();
+        if (status >= 400) {
+            fail(result.getRequest().getRequestURI() + " returned " + status);
+        }
+    }
+
+    private static void check(String name, Measurement m) {
+        List<String> over = new ArrayList<>();
+        over(over, name, "allocated-bytes", m.allocatedBytes());
+        if (Boolean.getBoolean("budgets.latency")) {
+            over(over, name, "p50-ms", m.p50Ms());
+            over(over, name, "p99-ms", m.p99Ms());
+        }
+        if (!over.isEmpty()) {
+            fail(name + " is over budget: " + String.join(", ", over)
+                    + ". If this is expected, run mvnw verify -Dbudgets.record=true and commit the new budgets.");
+        }
+    }
+
+    private static void over(List<String> over, String name, String metric, double value) {
+        String budget = budgets.getProperty(name + "." + metric);
+        assertNotNull(budget, "No budget " + name + "." + metric + " in endpoint-budgets.properties,"
+                + " run mvnw verify -Dbudgets.record=true to add it");
+        if (value > Double.parseDouble(budget)) {
+            over.add(String.format(Locale.ROOT, "%s %.1f > %s", metric, value, budget));
+        }
+    }
+
+    private static void writeBudgets() throws IOException {
+        double bytesHeadroom = Double.parseDouble(budgets.getProperty("headroom.allocated-bytes", "1.25"));
+        double latencyHeadroom = Double.parseDouble(budgets.getProperty("headroom.latency", "3"));
+        double minLatency = Double.parseDouble(budgets.getProperty("headroom.min-latency-ms", "2"));
+
+        try (Writer out = Files.newBufferedWriter(BUDGET_SOURCE, StandardCharsets.UTF_8)) {
+            out.write("# Per-endpoint budgets checked by EndpointBudgetIT during mvnw verify.\n");
+            out.write("#   <endpoint>.allocated-bytes  mean bytes allocated on the request thread per request\n");
+            out.write("#   <endpoint>.p50-ms / p99-ms  latency percentiles over measured-requests,\n");
+            out.write("#                               only checked with -Dbudgets.latency=true\n");
+            out.write("# Edit by hand, or regenerate with mvnw verify -Dbudgets.record=true, which sets\n");
+            out.write("# each budget to the measured value times the headroom below.\n\n");
+            for (String key : List.of("warmup-requests", "measured-requests", "headroom.allocated-bytes",
+                    "headroom.latency", "headroom.min-latency-ms")) {
+                if (budgets.getProperty(key) != null) {
+                    out.write(key + "=" + budgets.getProperty(key) + "\n");
+                }
+            }
+            for (Map.Entry<String, Measurement> e : measured.entrySet()) {
+                Measurement m = e.getValue();
+                out.write("\n");
+                // allocation is rounded up to the next 256 bytes so small jitter doesn't churn the file
+                long bytes = (long) Math.ceil(m.allocatedBytes() * bytesHeadroom / 256) * 256;
+                out.write(e.getKey() + ".allocated-bytes=" + bytes + "\n");
+                out.write(e.getKey() + ".p50-ms=" + latency(m.p50Ms(), latencyHeadroom, minLatency) + "\n");
+                out.write(e.getKey() + ".p99-ms=" + latency(m.p99Ms(), latencyHeadroom, minLatency) + "\n");
+            }
+        }
+        log.info("Wrote {} endpoint budgets to {}", measured.size(), BUDGET_SOURCE.toAbsolutePath());
+    }
+
+    private static String latency(double ms, double headroom, double min) {
+        return String.format(Locale.ROOT, "%.1f", Math.max(min, Math.ceil(ms * headroom * 10) / 10));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static boolean recording() {
+        return Boolean.getBoolean("budgets.record");
+    }
+}
@@ -0,0 +1,68 @@
+package sg.edu.nus.iss.d13revision.config;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import sg.edu.nus.iss.d13revision.metrics.RouteLatencyRecorder;
+import sg.edu.nus.iss.d13revision.services.PersonService;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "warmup.enabled=true", "warmup.max-duration=3s", "warmup.window=500ms" })
+public class JitWarmupTest {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ApplicationAvailability availability;
+
+    @Autowired
+    private PersonService perSvc;
+
+    @Autowired
+    private RouteLatencyRecorder recorder;
+
+    @Test
+    public void testWarmupRunsBeforeReadinessAndReports() {
+        // the context is only handed out once the runners, warm-up included, have finished
+        assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+
+        double seconds = registry.get("warmup.duration").timeGauge().value(TimeUnit.SECONDS);
+        assertTrue(seconds > 0 && seconds < 10, "warm-up took " + seconds + "s");
+        assertTrue(registry.get("warmup.requests").gauge().value() > 0);
+        assertNotNull(registry.get("warmup.request.latency").tag("window", "first").timeGauge());
+        assertNotNull(registry.get("warmup.request.latency").tag("window", "last").timeGauge());
+        assertNotNull(registry.get("warmup.settled").gauge());
+
+        // warm-up only reads
+        assertEquals(0, perSvc.getVersion());
+
+        // and leaves no trace in the request metrics
+        assertTrue(recorder.summaries().isEmpty(), recorder.summaries().keySet().toString());
+        assertNull(registry.find("http.server.requests").tag("uri", "/person/testRetrieve").timer());
+    }
+
+    @Test
+    public void testOnlyTheProcessTokenMarksWarmup() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person/testRetrieve");
+        // what every client looks like behind a sidecar proxy
+        request.setRemoteAddr("127.0.0.1");
+        assertFalse(JitWarmup.isWarmupRequest(request));
+
+        request.addHeader(JitWarmup.HEADER, "true");
+        assertFalse(JitWarmup.isWarmupRequest(request));
+
+        MockHttpServletRequest warmup = new MockHttpServletRequest("GET", "/person/testRetrieve");
+        warmup.addHeader(JitWarmup.HEADER, JitWarmup.TOKEN);
+        assertTrue(JitWarmup.isWarmupRequest(warmup));
+    }
+}
@@ -0,0 +1,50 @@
+package sg.edu.nus.iss.d13revision.config;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("prod")
+public class ProductionProfileTest {
+
+    private static final Pattern HASHED_CSS = Pattern.compile("/css/style-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ThymeleafProperties thymeleafProperties;
+
+    @Test
+    public void testTemplateCacheEnabled() {
+        assert thymeleafProperties.isCache();
+    }
+
+    @Test
+    public void testStylesheetServedFromHashedUrlWithLongCache() throws Exception {
+        String html = mockMvc.perform(get("/person/personList"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        Matcher m = HASHED_CSS.matcher(html);
+        assert m.find() : "personList should link the content-hashed stylesheet";
+
+        mockMvc.perform(get(m.group()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", containsString("max-age=31536000")))
+                .andExpect(header().string("Cache-Control", containsString("public")));
+    }
+}
@@ -13,6 +13,8 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -172,6 +174,51 @@ public class DataControllerTest {
                 .andExpect(jsonPath("$", hasSize(20)));
     }
 
+    @Test
+    public void testGetRandomNationsFieldProjection() throws Exception {
+        mockMvc.perform(get("/nations").param("fields", "capitalCity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)))
+                .andExpect(jsonPath("$[*].capitalCity", everyItem(notNullValue())))
+                .andExpect(jsonPath("$[0].flag").doesNotExist())
+                .andExpect(jsonPath("$[0].nationality").doesNotExist());
+    }
+
+    @Test
+    public void testGetRandomCurrenciesFieldProjection() throws Exception {
+        mockMvc.perform(get("/currencies").param("fields", "code"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(20)))
+                .andExpect(jsonPath("$[*].code", everyItem(notNullValue())))
+                .andExpect(jsonPath("$[0].name").doesNotExist());
+    }
+
+    @Test
+    public void testGetRandomNationsAsSmile() throws Exception {
+        byte[] body = mockMvc.perform(get("/nations").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode jsonNode = new SmileMapper().readTree(body);
+        assert jsonNode.isArray();
+        assert jsonNode.size() == 10;
+        assert jsonNode.get(0).has("capitalCity");
+    }
+
+    @Test
+    public void testGetRandomCurrenciesAsCbor() throws Exception {
+        byte[] body = mockMvc.perform(get("/currencies").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode jsonNode = new CBORMapper().readTree(body);
+        assert jsonNode.isArray();
+        assert jsonNode.size() == 20;
+        assert jsonNode.get(0).has("code");
+    }
+
     @Test
     public void testAllEndpointsReturnSuccessStatus() throws Exception {
         mockMvc.perform(get("/")).andExpect(status().isOk());
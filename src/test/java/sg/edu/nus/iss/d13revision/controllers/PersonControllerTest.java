@@ -7,18 +7,26 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+
 import sg.edu.nus.iss.d13revision.models.Person;
 import sg.edu.nus.iss.d13revision.services.PersonService;
+import sg.edu.nus.iss.d13revision.repositories.PersonSnapshot;
 
 @SpringBootTest
 @AutoConfigureMockMvc
@@ -115,6 +123,129 @@ public class PersonControllerTest {
                 .andExpect(content().contentType("application/json"));
     }
 
+    @Test
+    public void testGetAllPersonsFieldProjection() throws Exception {
+        when(personService.getPersons()).thenReturn(personList);
+
+        mockMvc.perform(get("/person/testRetrieve").param("fields", "id,lastName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].id", is("12345")))
+                .andExpect(jsonPath("$[0].lastName", is("Zuckerberg")))
+                .andExpect(jsonPath("$[0].firstName").doesNotExist());
+    }
+
+    @Test
+    public void testGetAllPersonsAsSmile() throws Exception {
+        when(personService.getPersons()).thenReturn(personList);
+
+        byte[] body = mockMvc.perform(get("/person/testRetrieve").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Person[] persons = new SmileMapper().readValue(body, Person[].class);
+        assert persons.length == 2;
+        assert persons[0].getFirstName().equals("Mark");
+    }
+
+    @Test
+    public void testGetAllPersonsAsCbor() throws Exception {
+        when(personService.getPersons()).thenReturn(personList);
+
+        byte[] body = mockMvc.perform(get("/person/testRetrieve").accept("application/cbor"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Person[] persons = new CBORMapper().readValue(body, Person[].class);
+        assert persons.length == 2;
+        assert persons[1].getLastName().equals("Musk");
+    }
+
+    @Test
+    public void testGetAllPersonsPagedPinsVersion() throws Exception {
+        PersonSnapshot snapshot = new PersonService().snapshot();
+        when(personService.snapshot()).thenReturn(snapshot);
+        when(personService.snapshotAt(0L)).thenReturn(Optional.of(snapshot));
+
+        mockMvc.perform(get("/person/testRetrieve").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Version", "0"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Mark")));
+
+        mockMvc.perform(get("/person/testRetrieve").param("version", "0").param("offset", "1").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Snapshot-Version", "0"))
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].firstName", is("Elon")));
+
+        verify(personService, never()).getPersons();
+    }
+
+    @Test
+    public void testGetAllPersonsExpiredVersionIsGone() throws Exception {
+        when(personService.snapshotAt(anyLong())).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/person/testRetrieve").param("version", "7").param("offset", "10"))
+                .andExpect(status().isGone());
+    }
+
+    // ======================== Import/Export Tests ========================
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testImportCsvValidatesLikeAddPerson() throws Exception {
+        String csv = "lastName,firstName\nLovelace,Ada\n,NoLast\n\"Hopper, Jr\",Grace\n";
+
+        mockMvc.perform(post("/person/import").contentType("text/csv").content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(3)));
+
+        ArgumentCaptor<Collection<Person>> added = ArgumentCaptor.forClass(Collection.class);
+        verify(personService).addPersons(added.capture());
+        List<Person> persons = new ArrayList<>(added.getValue());
+        assert persons.size() == 2;
+        assert persons.get(0).getFirstName().equals("Ada");
+        assert persons.get(1).getLastName().equals("Hopper, Jr");
+    }
+
+    @Test
+    public void testImportNdjson() throws Exception {
+        String ndjson = "{\"firstName\":\"Alan\",\"lastName\":\"Turing\"}\n{\"firstName\":\"\"}\nnot json\n";
+
+        mockMvc.perform(post("/person/import").contentType("application/x-ndjson").content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.rejected", is(2)));
+
+        verify(personService, times(1)).addPersons(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExportStreamsCsvAndNdjson() throws Exception {
+        doAnswer(inv -> {
+            personList.forEach(inv.getArgument(0, Consumer.class));
+            return null;
+        }).when(personService).forEach(any());
+
+        mockMvc.perform(get("/person/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(content().string("id,firstName,lastName\n12345,Mark,Zuckerberg\n67890,Elon,Musk\n"));
+
+        mockMvc.perform(get("/person/export").param("format", "ndjson"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(containsString("\"lastName\":\"Musk\"}\n")));
+
+        verify(personService, never()).getPersons();
+    }
+
     // ======================== Person List Tests ========================
 
     @Test
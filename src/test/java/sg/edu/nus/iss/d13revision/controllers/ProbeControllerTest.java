@@ -0,0 +1,72 @@
+package sg.edu.nus.iss.d13revision.controllers;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ProbeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Test
+    public void testFlightRecorderEndpointOffByDefault() throws Exception {
+        mockMvc.perform(get("/actuator/jfr")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testLivez() throws Exception {
+        mockMvc.perform(get("/livez"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("ok"));
+    }
+
+    @Test
+    public void testReadyzReportsCachedComponents() throws Exception {
+        awaitReadyz(200);
+        mockMvc.perform(get("/readyz"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("UP"))
+                .andExpect(jsonPath("$.components.readinessState").value("ACCEPTING_TRAFFIC"))
+                .andExpect(jsonPath("$.components.personStore").value("UP"))
+                .andExpect(jsonPath("$.checkedAt").exists());
+    }
+
+    @Test
+    public void testReadyzFollowsReadinessState() throws Exception {
+        awaitReadyz(200);
+        try {
+            AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+            awaitReadyz(503);
+            mockMvc.perform(get("/readyz"))
+                    .andExpect(jsonPath("$.components.readinessState").value("REFUSING_TRAFFIC"));
+        } finally {
+            AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+        }
+        awaitReadyz(200);
+    }
+
+    /** The cache refreshes in the background, so give it a moment to catch up. */
+    private void awaitReadyz(int expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        int actual;
+        while ((actual = mockMvc.perform(get("/readyz")).andReturn().getResponse().getStatus()) != expected
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assert actual == expected : "readyz stayed at " + actual;
+    }
+}
@@ -0,0 +1,176 @@
+package sg.edu.nus.iss.d13revision.filters;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletResponse;
+import sg.edu.nus.iss.d13revision.services.PersonService;
+
+public class RequestCoalescingFilterTest {
+
+    private RequestCoalescingFilter filter;
+    private final CountDownLatch leaderRendering = new CountDownLatch(1);
+    private final CountDownLatch releaseLeader = new CountDownLatch(1);
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() {
+        filter = new RequestCoalescingFilter();
+        filter.perSvc = new PersonService();
+        filter.coalescedPaths = List.of("/person/testRetrieve");
+        filter.followerTimeoutMs = 5000;
+    }
+
+    @Test
+    public void testConcurrentIdenticalReadsRenderOnce() throws Exception {
+        FilterChain slowChain = (req, res) -> {
+            renders.incrementAndGet();
+            leaderRendering.countDown();
+            await(releaseLeader);
+            res.setContentType("application/json");
+            HttpServletResponse http = (HttpServletResponse) res;
+            http.setHeader("X-Snapshot-Version", "7");
+            http.setHeader("Cache-Control", "no-cache");
+            http.addHeader("Vary", "Accept");
+            http.addHeader("Vary", "Accept-Encoding");
+            http.setHeader("X-Frame-Options", "DENY");
+            res.getOutputStream().write("[{\"id\":\"1\"}]".getBytes());
+        };
+
+        MockHttpServletResponse leaderResponse = new MockHttpServletResponse();
+        // set outside the coalescing filter, for the leader only
+        leaderResponse.setHeader("X-Trace-Id", "leader");
+        Thread leader = new Thread(() -> run(request(), leaderResponse, slowChain));
+        leader.start();
+        assertTrue(leaderRendering.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletRequest followerRequest = request();
+        MockHttpServletResponse followerResponse = new MockHttpServletResponse();
+        filter.doFilter(followerRequest, followerResponse, slowChain);
+
+        // the follower has given its thread back and is waiting on the leader
+        assertTrue(followerRequest.isAsyncStarted());
+        assertEquals("", followerResponse.getContentAsString());
+
+        releaseLeader.countDown();
+        leader.join(5000);
+
+        assertEquals(1, renders.get());
+        assertEquals("[{\"id\":\"1\"}]", leaderResponse.getContentAsString());
+        assertEquals("[{\"id\":\"1\"}]", followerResponse.getContentAsString());
+        assertEquals("application/json", followerResponse.getContentType());
+        assertEquals("7", followerResponse.getHeader("X-Snapshot-Version"));
+        assertEquals("no-cache", followerResponse.getHeader("Cache-Control"));
+        assertEquals(List.of("Accept", "Accept-Encoding"), followerResponse.getHeaders("Vary"));
+        assertNull(followerResponse.getHeader("X-Trace-Id"));
+        assertNull(followerResponse.getHeader("X-Frame-Options"));
+        assertFalse(followerRequest.isAsyncStarted());
+    }
+
+    @Test
+    public void testResponseSettingACookieIsNotShared() throws Exception {
+        FilterChain sessionChain = (req, res) -> {
+            int render = renders.incrementAndGet();
+            if (render == 1) {
+                leaderRendering.countDown();
+                await(releaseLeader);
+            }
+            ((HttpServletResponse) res).addHeader("Set-Cookie", "JSESSIONID=" + render);
+            res.getOutputStream().write(("render " + render).getBytes());
+        };
+
+        Thread leader = new Thread(() -> run(request(), new MockHttpServletResponse(), sessionChain));
+        leader.start();
+        assertTrue(leaderRendering.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletRequest asyncFollower = request();
+        MockHttpServletResponse asyncResponse = new MockHttpServletResponse();
+        filter.doFilter(asyncFollower, asyncResponse, sessionChain);
+        MockHttpServletRequest syncFollower = request();
+        syncFollower.setAsyncSupported(false);
+        MockHttpServletResponse syncResponse = new MockHttpServletResponse();
+        Thread sync = new Thread(() -> run(syncFollower, syncResponse, sessionChain));
+        sync.start();
+        Thread.sleep(100);
+        releaseLeader.countDown();
+        leader.join(5000);
+        sync.join(5000);
+
+        // sent back through the container to render for itself
+        assertEquals("/person/testRetrieve",
+                ((MockAsyncContext) asyncFollower.getAsyncContext()).getDispatchedPath());
+        assertNull(asyncResponse.getHeader("Set-Cookie"));
+        assertEquals("JSESSIONID=2", syncResponse.getHeader("Set-Cookie"));
+        assertEquals("render 2", syncResponse.getContentAsString());
+    }
+
+    @Test
+    public void testLeaderFailureReachesFollowers() throws Exception {
+        FilterChain failingChain = (req, res) -> {
+            renders.incrementAndGet();
+            leaderRendering.countDown();
+            await(releaseLeader);
+            throw new IllegalStateException("store unavailable");
+        };
+
+        Thread leader = new Thread(() -> assertThrows(IllegalStateException.class,
+                () -> filter.doFilter(request(), new MockHttpServletResponse(), failingChain)));
+        leader.start();
+        assertTrue(leaderRendering.await(5, TimeUnit.SECONDS));
+
+        MockHttpServletResponse followerResponse = new MockHttpServletResponse();
+        filter.doFilter(request(), followerResponse, failingChain);
+        releaseLeader.countDown();
+        leader.join(5000);
+
+        assertEquals(1, renders.get());
+        assertEquals(500, followerResponse.getStatus());
+    }
+
+    @Test
+    public void testSequentialReadsAreNotCached() throws Exception {
+        FilterChain chain = (req, res) -> {
+            renders.incrementAndGet();
+            res.getOutputStream().write("ok".getBytes());
+        };
+
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+        filter.doFilter(request(), new MockHttpServletResponse(), chain);
+
+        assertEquals(2, renders.get());
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/person/testRetrieve");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private void run(MockHttpServletRequest request, MockHttpServletResponse response, FilterChain chain) {
+        try {
+            filter.doFilter(request, response, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) throws ServletException {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new ServletException(e);
+        }
+    }
+}
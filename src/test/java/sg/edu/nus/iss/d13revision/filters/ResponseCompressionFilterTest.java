@@ -0,0 +1,130 @@
+package sg.edu.nus.iss.d13revision.filters;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import sg.edu.nus.iss.d13revision.services.PersonService;
+
+@SpringBootTest(properties = "compression.min-response-size=64")
+@AutoConfigureMockMvc
+public class ResponseCompressionFilterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @SpyBean
+    private PersonService personService;
+
+    @Autowired
+    private ResponseCompressionFilter filter;
+
+    @Test
+    public void testNegotiatePrefersHighestQuality() {
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("gzip, deflate, br"));
+        assertEquals(ContentEncoding.DEFLATE, ContentEncoding.negotiate("gzip;q=0.5, deflate"));
+        assertEquals(ContentEncoding.GZIP, ContentEncoding.negotiate("*"));
+        assertNull(ContentEncoding.negotiate("br"));
+        assertNull(ContentEncoding.negotiate("gzip;q=0"));
+        assertNull(ContentEncoding.negotiate(null));
+    }
+
+    @Test
+    public void testUncompressedWithoutAcceptEncoding() throws Exception {
+        mockMvc.perform(get("/person/testRetrieve"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", containsString("Accept-Encoding")))
+                .andExpect(jsonPath("$[0].firstName", notNullValue()));
+    }
+
+    @Test
+    public void testGzipResponseIsCachedUntilStoreChanges() throws Exception {
+        byte[] first = mockMvc.perform(get("/person/testRetrieve").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().contentType("application/json"))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] second = mockMvc.perform(get("/person/testRetrieve").header("Accept-Encoding", "gzip"))
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertArrayEquals(first, second);
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(first)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"firstName\""));
+        verify(personService, times(1)).getPersons();
+
+        mockMvc.perform(post("/person/addPerson")
+                .param("firstName", "Grace")
+                .param("lastName", "Hopper"));
+        byte[] third = mockMvc.perform(get("/person/testRetrieve").header("Accept-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        json = new String(new GZIPInputStream(new ByteArrayInputStream(third)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(json.contains("Hopper"));
+        verify(personService, times(2)).getPersons();
+    }
+
+    @Test
+    public void testAcceptHeadersShareTheNegotiatedEntry() throws Exception {
+        for (String accept : new String[] { "application/json", "application/json, text/plain, */*",
+                "application/json;q=0.9, */*;q=0.1" }) {
+            mockMvc.perform(get("/person/testRetrieve").header("Accept-Encoding", "gzip").header("Accept", accept))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/json"));
+        }
+        mockMvc.perform(get("/person/testRetrieve").header("Accept-Encoding", "gzip")
+                .header("Accept", "application/x-jackson-smile"))
+                .andExpect(content().contentType("application/x-jackson-smile"));
+
+        // each Accept header is rendered once to learn its type; the JSON ones then hit the same entry
+        verify(personService, times(4)).getPersons();
+        mockMvc.perform(get("/person/testRetrieve").header("Accept-Encoding", "gzip")
+                .header("Accept", "application/json, text/plain, */*"))
+                .andExpect(content().contentType("application/json"));
+        verify(personService, times(4)).getPersons();
+
+        Map<?, ?> cache = (Map<?, ?>) ReflectionTestUtils.getField(filter, "cache");
+        assertEquals(2, cache.keySet().stream().filter(k -> k.toString().endsWith(" /person/testRetrieve")).count(),
+                cache.keySet().toString());
+    }
+
+    @Test
+    public void testDeflatePersonListPage() throws Exception {
+        byte[] body = mockMvc.perform(get("/person/personList").header("Accept-Encoding", "deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "deflate"))
+                .andExpect(content().contentTypeCompatibleWith("text/html"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        String html = new String(new InflaterInputStream(new ByteArrayInputStream(body)).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(html.contains("Person List"));
+    }
+
+    @Test
+    public void testOtherEndpointsAreNotTouched() throws Exception {
+        mockMvc.perform(get("/version").header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("The actual version is 1.0.0"));
+    }
+}
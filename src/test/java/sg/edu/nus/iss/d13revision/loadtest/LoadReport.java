@@ -0,0 +1,186 @@
+package sg.edu.nus.iss.d13revision.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * What a load run measured, written as report.json, a self-contained
+ * report.html and one HdrHistogram percentile file per operation
+ * (&lt;operation&gt;.hgrm, plottable with HdrHistogram's online plotter).
+ * All latencies are in milliseconds.
+ */
+public class LoadReport {
+
+    record Percentiles(double p50, double p90, double p99, double p999, double max, double mean) {
+
+        static Percentiles of(Histogram h) {
+            return new Percentiles(ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()),
+                    h.getTotalCount() == 0 ? 0 : Math.round(h.getMean()) / 1000.0);
+        }
+    }
+
+    record OperationSummary(String operation, long requests, long errors, long shed, double throughput,
+            Percentiles corrected, Percentiles uncorrected) {
+    }
+
+    record Totals(long requests, long errors, long shed, double errorRate, double throughput,
+            Percentiles corrected, Percentiles uncorrected) {
+    }
+
+    record Summary(Instant startedAt, LoadTestSettings settings, Totals totals, List<OperationSummary> operations,
+            List<OpenLoadGenerator.Sample> timeline) {
+    }
+
+    private final Summary summary;
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    LoadReport(LoadTestSettings settings, Instant startedAt, Map<Operation, OpenLoadGenerator.OperationStats> stats,
+            List<OpenLoadGenerator.Sample> timeline) {
+        // achieved rate over the measured window; the timeline also covers the drain afterwards
+        double seconds = Math.max(0.001, settings.duration().toMillis() / 1000.0);
+        List<OperationSummary> operations = new ArrayList<>();
+        Histogram corrected = new Histogram(3);
+        Histogram uncorrected = new Histogram(3);
+        long requests = 0, errors = 0, shed = 0;
+        for (Map.Entry<Operation, OpenLoadGenerator.OperationStats> e : stats.entrySet()) {
+            OpenLoadGenerator.OperationStats s = e.getValue();
+            operations.add(new OperationSummary(e.getKey().key, s.requests.sum(), s.errors.sum(), s.shed.sum(),
+                    s.requests.sum() / seconds, Percentiles.of(s.correctedTotal),
+                    Percentiles.of(s.uncorrectedTotal)));
+            histograms.put(e.getKey().key, s.correctedTotal);
+            corrected.add(s.correctedTotal);
+            uncorrected.add(s.uncorrectedTotal);
+            requests += s.requests.sum();
+            errors += s.errors.sum();
+            shed += s.shed.sum();
+        }
+        long attempted = requests + shed;
+        double errorRate = attempted == 0 ? 0 : (double) (errors + shed) / attempted;
+        histograms.put("all", corrected);
+        summary = new Summary(startedAt, settings, new Totals(requests, errors, shed, errorRate,
+                requests / seconds, Percentiles.of(corrected), Percentiles.of(uncorrected)),
+                operations, List.copyOf(timeline));
+    }
+
+    public Totals totals() {
+        return summary.totals();
+    }
+
+    public Summary summary() {
+        return summary;
+    }
+
+    public void writeTo(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        ObjectMapper mapper = JsonMapper.builder().findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .enable(SerializationFeature.INDENT_OUTPUT).build();
+        mapper.writeValue(dir.resolve("report.json").toFile(), summary);
+        Files.writeString(dir.resolve("report.html"), html(), StandardCharsets.UTF_8);
+        for (Map.Entry<String, Histogram> e : histograms.entrySet()) {
+            try (PrintStream out = new PrintStream(dir.resolve(e.getKey() + ".hgrm").toFile(),
+                    StandardCharsets.UTF_8)) {
+                // recorded in microseconds, printed in milliseconds
+                e.getValue().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    private String html() {
+        Totals t = summary.totals();
+        LoadTestSettings s = summary.settings();
+        StringBuilder b = new StringBuilder(8192);
+        b.append("<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>Load test report</title><style>")
+                .append("body{font-family:sans-serif;margin:2em}table{border-collapse:collapse;margin:1em 0}")
+                .append("td,th{border:1px solid #ccc;padding:4px 8px;text-align:right}th{background:#eee}")
+                .append("td:first-child{text-align:left}</style></head><body>")
+                .append("<h1>Load test report</h1><p>Started ").append(summary.startedAt())
+                .append(String.format(Locale.ROOT,
+                        ", %.1f req/s offered (%s arrivals), %s warm-up, %s measured.</p>",
+                        s.rate(), s.poisson() ? "Poisson" : "uniform", s.warmup(), s.duration()))
+                .append(String.format(Locale.ROOT,
+                        "<p>%d requests, %d errors, %d shed (error rate %.3f%%), %.1f req/s achieved.</p>",
+                        t.requests(), t.errors(), t.shed(), t.errorRate() * 100, t.throughput()));
+
+        b.append("<h2>Latency, ms (measured from intended send time)</h2>");
+        table(b, summary.operations(), t, true);
+        b.append("<h2>Latency, ms (from actual send; hides coordinated omission)</h2>");
+        table(b, summary.operations(), t, false);
+        b.append("<h2>Per second</h2>").append(chart(summary.timeline())).append("</body></html>\n");
+        return b.toString();
+    }
+
+    private static void table(StringBuilder b, List<OperationSummary> ops, Totals t, boolean corrected) {
+        b.append("<table><tr><th>operation</th><th>requests</th><th>errors</th><th>shed</th><th>req/s</th>")
+                .append("<th>p50</th><th>p90</th><th>p99</th><th>p99.9</th><th>max</th><th>mean</th></tr>");
+        for (OperationSummary op : ops) {
+            row(b, op.operation(), op.requests(), op.errors(), op.shed(), op.throughput(),
+                    corrected ? op.corrected() : op.uncorrected());
+        }
+        row(b, "all", t.requests(), t.errors(), t.shed(), t.throughput(), corrected ? t.corrected() : t.uncorrected());
+        b.append("</table>");
+    }
+
+    private static void row(StringBuilder b, String name, long requests, long errors, long shed, double rate,
+            Percentiles p) {
+        b.append(String.format(Locale.ROOT,
+                "<tr><td>%s</td><td>%d</td><td>%d</td><td>%d</td><td>%.1f</td>"
+                        + "<td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td><td>%.2f</td></tr>",
+                name, requests, errors, shed, rate, p.p50(), p.p90(), p.p99(), p.p999(), p.max(), p.mean()));
+    }
+
+    /** p50 and p99 per second as an inline SVG, so the report needs nothing from the network. */
+    private static String chart(List<OpenLoadGenerator.Sample> timeline) {
+        int width = 900, height = 300, pad = 40;
+        double top = 1;
+        for (OpenLoadGenerator.Sample sample : timeline) {
+            top = Math.max(top, sample.p99Ms());
+        }
+        double xStep = timeline.size() > 1 ? (double) (width - 2 * pad) / (timeline.size() - 1) : 0;
+        StringBuilder p50 = new StringBuilder();
+        StringBuilder p99 = new StringBuilder();
+        for (int i = 0; i < timeline.size(); i++) {
+            double x = pad + i * xStep;
+            p50.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y(timeline.get(i).p50Ms(), top, height, pad)));
+            p99.append(String.format(Locale.ROOT, "%.1f,%.1f ", x, y(timeline.get(i).p99Ms(), top, height, pad)));
+        }
+        return String.format(Locale.ROOT,
+                "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\">"
+                        + "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#999\"/>"
+                        + "<line x1=\"%d\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#999\"/>"
+                        + "<text x=\"2\" y=\"%d\" font-size=\"11\">%.1f ms</text>"
+                        + "<text x=\"2\" y=\"%d\" font-size=\"11\">0</text>"
+                        + "<text x=\"%d\" y=\"%d\" font-size=\"11\">%d s</text>"
+                        + "<polyline fill=\"none\" stroke=\"#36c\" points=\"%s\"/>"
+                        + "<polyline fill=\"none\" stroke=\"#c33\" points=\"%s\"/>"
+                        + "<text x=\"%d\" y=\"14\" font-size=\"11\" fill=\"#36c\">p50</text>"
+                        + "<text x=\"%d\" y=\"14\" font-size=\"11\" fill=\"#c33\">p99</text></svg>",
+                width, height, pad, pad, pad, height - pad, pad, height - pad, width - pad, height - pad,
+                pad, top, height - pad, width - pad - 20, height - pad + 15, timeline.size(),
+                p50, p99, width - 90, width - 50);
+    }
+
+    private static double y(double value, double top, int height, int pad) {
+        return height - pad - value / top * (height - 2 * pad);
+    }
+
+    private static double ms(long micros) {
+        return micros / 1000.0;
+    }
+}
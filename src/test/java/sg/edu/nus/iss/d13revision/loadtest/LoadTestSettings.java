@@ -0,0 +1,76 @@
+package sg.edu.nus.iss.d13revision.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Load test knobs, all read from -Dloadtest.* system properties:
+ *
+ * rate           requests per second across the whole mix (default 100)
+ * duration       measured run length, e.g. 60s, 10m, 2h for a soak (default 30s)
+ * warmup         unmeasured lead-in at the same rate (default 10s)
+ * arrivals       poisson or uniform spacing between requests (default poisson)
+ * mix            weights per operation, e.g. readJson=5,personList=2,addPerson=1
+ * max-in-flight  requests allowed outstanding before new ones are shed (default 5000)
+ * max-error-rate fail the run above this share of errors and sheds (default 0.01)
+ * p99-budget-ms  fail the run if the corrected overall p99 is above this (default off)
+ * report-dir     where report.json, report.html and *.hgrm go (default target/loadtest)
+ */
+public record LoadTestSettings(double rate, Duration duration, Duration warmup, boolean poisson,
+        Map<Operation, Integer> mix, int maxInFlight, double maxErrorRate, double p99BudgetMs, Path reportDir) {
+
+    static final String DEFAULT_MIX = "readJson=30,personList=20,nations=20,currencies=10,addPerson=15,editPerson=5";
+
+    public static LoadTestSettings fromSystemProperties() {
+        return new LoadTestSettings(
+                Double.parseDouble(prop("rate", "100")),
+                duration(prop("duration", "30s")),
+                duration(prop("warmup", "10s")),
+                !"uniform".equalsIgnoreCase(prop("arrivals", "poisson")),
+                mix(prop("mix", DEFAULT_MIX)),
+                Integer.parseInt(prop("max-in-flight", "5000")),
+                Double.parseDouble(prop("max-error-rate", "0.01")),
+                Double.parseDouble(prop("p99-budget-ms", "0")),
+                Path.of(prop("report-dir", "target/loadtest")));
+    }
+
+    public LoadTestSettings withRun(double rate, Duration duration, Duration warmup) {
+        return new LoadTestSettings(rate, duration, warmup, poisson, mix, maxInFlight, maxErrorRate, p99BudgetMs,
+                reportDir);
+    }
+
+    private static String prop(String name, String fallback) {
+        return System.getProperty("loadtest." + name, fallback);
+    }
+
+    static Map<Operation, Integer> mix(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            if (weight > 0) {
+                weights.put(Operation.byName(kv[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a positive weight: " + spec);
+        }
+        return weights;
+    }
+
+    /** 500ms, 30s, 10m, 2h, or a plain number of seconds. */
+    static Duration duration(String spec) {
+        String s = spec.trim().toLowerCase();
+        if (s.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
+        }
+        long n = Long.parseLong(s.replaceAll("[smh]$", ""));
+        return switch (s.charAt(s.length() - 1)) {
+            case 'm' -> Duration.ofMinutes(n);
+            case 'h' -> Duration.ofHours(n);
+            default -> Duration.ofSeconds(n);
+        };
+    }
+}
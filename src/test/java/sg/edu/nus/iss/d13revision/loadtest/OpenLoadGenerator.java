@@ -0,0 +1,203 @@
+package sg.edu.nus.iss.d13revision.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open-model load generator: requests go out on a fixed schedule (uniform or
+ * Poisson arrivals at the configured rate) whether or not earlier ones have
+ * come back, the way real users arrive.
+ *
+ * Latency is measured from when a request was due to be sent, not from when
+ * it actually went out. When the server (or this client) stalls, requests
+ * that queued up behind the stall are charged for the wait, so the histograms
+ * are free of coordinated omission. The naive send-to-response latency is
+ * kept alongside for comparison.
+ */
+@Slf4j
+public class OpenLoadGenerator {
+
+    private static final long SAMPLE_INTERVAL_MS = 1000;
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    /** Latency and outcome counts for one operation. Values are recorded in microseconds. */
+    static final class OperationStats {
+        final Recorder corrected = new Recorder(3);
+        final Recorder uncorrected = new Recorder(3);
+        final Histogram correctedTotal = new Histogram(3);
+        final Histogram uncorrectedTotal = new Histogram(3);
+        final LongAdder requests = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder shed = new LongAdder();
+    }
+
+    /** One second of the measured run, across all operations. */
+    record Sample(long second, long requests, long errors, double p50Ms, double p99Ms, double maxMs) {
+    }
+
+    private final URI base;
+    private final LoadTestSettings settings;
+    private final Operation.Context context;
+    private final HttpClient client;
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final List<Sample> timeline = new ArrayList<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder intervalErrors = new LongAdder();
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    public OpenLoadGenerator(URI base, LoadTestSettings settings, List<String> editableIds) {
+        this.base = base;
+        this.settings = settings;
+        this.context = new Operation.Context(editableIds);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        Map<Operation, Integer> mix = new EnumMap<>(settings.mix());
+        if (editableIds.isEmpty()) {
+            mix.remove(Operation.EDIT_PERSON);
+        }
+        operations = mix.keySet().toArray(Operation[]::new);
+        cumulativeWeights = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += mix.get(operations[i]);
+            cumulativeWeights[i] = sum;
+            stats.put(operations[i], new OperationStats());
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        SplittableRandom random = new SplittableRandom();
+        double meanGapNanos = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long end = measureFrom + settings.duration().toNanos();
+        log.info("Load test against {}: {} req/s, {} warm-up, {} measured, mix {}", base, settings.rate(),
+                settings.warmup(), settings.duration(), settings.mix());
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "loadtest-sampler");
+            t.setDaemon(true);
+            return t;
+        });
+        Instant startedAt = null;
+
+        double intended = start;
+        while (intended < end) {
+            long due = (long) intended;
+            boolean measured = due >= measureFrom;
+            if (measured && startedAt == null) {
+                // anything recorded so far belongs to the warm-up
+                startedAt = Instant.now();
+                stats.values().forEach(s -> {
+                    s.corrected.reset();
+                    s.uncorrected.reset();
+                });
+                sampler.scheduleAtFixedRate(this::sample, SAMPLE_INTERVAL_MS, SAMPLE_INTERVAL_MS,
+                        TimeUnit.MILLISECONDS);
+            }
+            parkUntil(due);
+            send(pick(random), due, measured);
+
+            double gap = settings.poisson() ? -Math.log(1.0 - random.nextDouble()) * meanGapNanos : meanGapNanos;
+            intended += gap;
+        }
+
+        long drainBy = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainBy) {
+            Thread.sleep(10);
+        }
+        sampler.shutdownNow();
+        sampler.awaitTermination(1, TimeUnit.SECONDS);
+        sample();
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still outstanding after {}", inFlight.get(), DRAIN_TIMEOUT);
+        }
+
+        return new LoadReport(settings, startedAt == null ? Instant.now() : startedAt, stats, timeline);
+    }
+
+    private void send(Operation op, long due, boolean measured) {
+        OperationStats s = stats.get(op);
+        if (inFlight.get() >= settings.maxInFlight()) {
+            // the client can't keep up either; count it rather than silently slowing down
+            if (measured) {
+                s.shed.increment();
+                intervalErrors.increment();
+            }
+            return;
+        }
+        HttpRequest request = op.request(base, context);
+        inFlight.incrementAndGet();
+        long sentAt = System.nanoTime();
+        client.sendAsync(request, BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long done = System.nanoTime();
+            inFlight.decrementAndGet();
+            if (!measured) {
+                return;
+            }
+            s.corrected.recordValue(Math.max(1, (done - due) / 1000));
+            s.uncorrected.recordValue(Math.max(1, (done - sentAt) / 1000));
+            s.requests.increment();
+            if (failure != null || response.statusCode() >= 400) {
+                s.errors.increment();
+                intervalErrors.increment();
+            }
+        });
+    }
+
+    private synchronized void sample() {
+        Histogram second = new Histogram(3);
+        for (OperationStats s : stats.values()) {
+            Histogram corrected = s.corrected.getIntervalHistogram();
+            s.correctedTotal.add(corrected);
+            s.uncorrectedTotal.add(s.uncorrected.getIntervalHistogram());
+            second.add(corrected);
+        }
+        timeline.add(new Sample(timeline.size() + 1, second.getTotalCount(), intervalErrors.sumThenReset(),
+                second.getValueAtPercentile(50) / 1000.0, second.getValueAtPercentile(99) / 1000.0,
+                second.getMaxValue() / 1000.0));
+    }
+
+    private Operation pick(SplittableRandom random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static void parkUntil(long due) {
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+}
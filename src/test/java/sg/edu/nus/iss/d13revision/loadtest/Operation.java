@@ -0,0 +1,93 @@
+package sg.edu.nus.iss.d13revision.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** One kind of request in the mix. Redirects are not followed, so a form post ends at its 302. */
+public enum Operation {
+
+    READ_JSON("readJson") {
+        @Override
+        HttpRequest request(URI base, Context ctx) {
+            return get(base, "/person/testRetrieve").header("Accept", "application/json")
+                    .header("Accept-Encoding", "gzip").build();
+        }
+    },
+    PERSON_LIST("personList") {
+        @Override
+        HttpRequest request(URI base, Context ctx) {
+            return get(base, "/person/personList").header("Accept", "text/html")
+                    .header("Accept-Encoding", "gzip").build();
+        }
+    },
+    NATIONS("nations") {
+        @Override
+        HttpRequest request(URI base, Context ctx) {
+            return get(base, "/nations").header("Accept", "application/json").build();
+        }
+    },
+    CURRENCIES("currencies") {
+        @Override
+        HttpRequest request(URI base, Context ctx) {
+            return get(base, "/currencies").header("Accept", "application/json").build();
+        }
+    },
+    ADD_PERSON("addPerson") {
+        @Override
+        HttpRequest request(URI base, Context ctx) {
+            return form(base, "/person/addPerson", "firstName=Load&lastName=Test" + ctx.sequence.incrementAndGet());
+        }
+    },
+    EDIT_PERSON("editPerson") {
+        @Override
+        HttpRequest request(URI base, Context ctx) {
+            String id = ctx.editableIds.get(ThreadLocalRandom.current().nextInt(ctx.editableIds.size()));
+            return form(base, "/person/personEdit",
+                    "id=" + id + "&firstName=Edited&lastName=Test" + ctx.sequence.incrementAndGet());
+        }
+    };
+
+    /** State shared by all requests of one run. */
+    static final class Context {
+        final List<String> editableIds;
+        final AtomicLong sequence = new AtomicLong();
+
+        Context(List<String> editableIds) {
+            this.editableIds = editableIds;
+        }
+    }
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    final String key;
+
+    Operation(String key) {
+        this.key = key;
+    }
+
+    abstract HttpRequest request(URI base, Context ctx);
+
+    static Operation byName(String key) {
+        for (Operation op : values()) {
+            if (op.key.equalsIgnoreCase(key) || op.name().equalsIgnoreCase(key)) {
+                return op;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test operation " + key);
+    }
+
+    private static HttpRequest.Builder get(URI base, String path) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT).GET();
+    }
+
+    private static HttpRequest form(URI base, String path, String body) {
+        return HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(BodyPublishers.ofString(body)).build();
+    }
+}
@@ -0,0 +1,91 @@
+package sg.edu.nus.iss.d13revision.loadtest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives the app on a random port with {@link OpenLoadGenerator}.
+ *
+ * loadAndSoak is tagged "load" and only runs under mvnw -Ploadtest, with the
+ * rate, duration and mix taken from -Dloadtest.* (see {@link LoadTestSettings}).
+ * Add -Dspring.profiles.active=jdbc to load the H2 store instead of memory.
+ * harnessSmoke runs in the normal build for a second at a low rate, so the
+ * harness itself can't rot.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+public class PersonLoadTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @Tag("load")
+    public void loadAndSoak() throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        LoadReport report = new OpenLoadGenerator(base(), settings, editableIds()).run();
+        report.writeTo(settings.reportDir());
+
+        LoadReport.Totals totals = report.totals();
+        assertTrue(totals.requests() > 0, "no requests completed");
+        assertTrue(totals.errorRate() <= settings.maxErrorRate(),
+                "error rate " + totals.errorRate() + " above " + settings.maxErrorRate()
+                        + ", see " + settings.reportDir().toAbsolutePath());
+        if (settings.p99BudgetMs() > 0) {
+            assertTrue(totals.corrected().p99() <= settings.p99BudgetMs(),
+                    "p99 " + totals.corrected().p99() + " ms above budget of " + settings.p99BudgetMs() + " ms");
+        }
+    }
+
+    @Test
+    public void harnessSmoke(@TempDir Path reportDir) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties()
+                .withRun(50, Duration.ofSeconds(1), Duration.ofMillis(200));
+        LoadReport report = new OpenLoadGenerator(base(), settings, editableIds()).run();
+        report.writeTo(reportDir);
+
+        assertTrue(report.totals().requests() > 0);
+        assertEquals(0, report.totals().errors());
+        assertEquals(settings.mix().size(), report.summary().operations().size());
+        assertTrue(Files.size(reportDir.resolve("report.html")) > 0);
+        JsonNode json = objectMapper.readTree(reportDir.resolve("report.json").toFile());
+        assertEquals(report.totals().requests(), json.at("/totals/requests").asLong());
+        assertTrue(Files.exists(reportDir.resolve("all.hgrm")));
+    }
+
+    private URI base() {
+        return URI.create("http://localhost:" + port);
+    }
+
+    /** Ids present before the run, for the edit operation to post back. */
+    private List<String> editableIds() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(base().resolve("/person/testRetrieve"))
+                .header("Accept", "application/json").build();
+        JsonNode persons = objectMapper.readTree(client.send(request, BodyHandlers.ofString()).body());
+        List<String> ids = new ArrayList<>();
+        persons.forEach(p -> ids.add(p.get("id").asText()));
+        return ids;
+    }
+}
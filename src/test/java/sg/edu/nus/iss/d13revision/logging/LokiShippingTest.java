@@ -0,0 +1,198 @@
+package sg.edu.nus.iss.d13revision.logging;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import com.github.loki4j.logback.AbstractLoki4jEncoder;
+import com.github.loki4j.logback.JsonEncoder;
+import com.github.loki4j.logback.Loki4jAppender;
+import com.sun.net.httpserver.HttpServer;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+
+/**
+ * Runs the shipping pipeline against a local HTTP stub standing in for Loki.
+ */
+public class LokiShippingTest {
+
+    record Push(String contentEncoding, byte[] body) {
+    }
+
+    private HttpServer stub;
+    private final BlockingQueue<Push> pushes = new LinkedBlockingQueue<>();
+    private final LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    private Logger logger;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        stub = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stub.createContext("/loki/api/v1/push", exchange -> {
+            pushes.add(new Push(exchange.getRequestHeaders().getFirst("Content-Encoding"),
+                    exchange.getRequestBody().readAllBytes()));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        stub.start();
+
+        logger = context.getLogger("loki-shipping-test");
+        logger.setAdditive(false);
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        logger.detachAndStopAllAppenders();
+        stub.stop(0);
+    }
+
+    @Test
+    public void testBatchIsShippedGzipCompressed() throws Exception {
+        GzipJavaHttpSender sender = new GzipJavaHttpSender();
+        sender.setUrl("http://localhost:" + stub.getAddress().getPort() + "/loki/api/v1/push");
+
+        AbstractLoki4jEncoder.LabelCfg label = new AbstractLoki4jEncoder.LabelCfg();
+        label.setPattern("app=test,level=%level");
+        JsonEncoder encoder = new JsonEncoder();
+        encoder.setContext(context);
+        encoder.setLabel(label);
+
+        Loki4jAppender loki = new Loki4jAppender();
+        loki.setContext(context);
+        loki.setName("loki-test");
+        loki.setBatchTimeoutMs(100);
+        loki.setHttp(sender);
+        loki.setFormat(encoder);
+        loki.start();
+
+        MeteredAsyncAppender async = asyncAppender(64);
+        async.addAppender(loki);
+        async.start();
+        logger.addAppender(async);
+
+        logger.info("hello from the shipping test");
+
+        Push push = pushes.poll(10, TimeUnit.SECONDS);
+        assertNotNull(push, "stub should receive a push");
+        assertEquals("gzip", push.contentEncoding());
+        String json = new String(new GZIPInputStream(new ByteArrayInputStream(push.body())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertTrue(json.contains("hello from the shipping test"));
+        assertTrue(json.contains("\"app\":\"test\""));
+    }
+
+    @Test
+    public void testLowLevelEventsAreShedWithoutBlockingCaller() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        List<ILoggingEvent> delivered = new CopyOnWriteArrayList<>();
+        AppenderBase<ILoggingEvent> stalledBackend = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.add(event);
+            }
+        };
+        stalledBackend.setContext(context);
+        stalledBackend.start();
+
+        MeteredAsyncAppender async = asyncAppender(100);
+        async.setDiscardingThreshold(20);
+        async.addAppender(stalledBackend);
+        async.start();
+        logger.addAppender(async);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            logger.info("filler {}", i);
+        }
+        for (int i = 0; i < 5; i++) {
+            logger.error("important {}", i);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMs < 1000, "logging must not wait on a stalled backend, took " + elapsedMs + " ms");
+        assertTrue(async.getDiscardedCount() > 0);
+        assertEquals(0, async.getOverflowCount());
+
+        gate.countDown();
+        async.stop();
+        long errors = delivered.stream().filter(e -> e.getLevel() == Level.ERROR).count();
+        assertEquals(5, errors);
+    }
+
+    @Test
+    public void testEveryLostEventIsCounted() throws Exception {
+        CountDownLatch gate = new CountDownLatch(1);
+        List<ILoggingEvent> delivered = new CopyOnWriteArrayList<>();
+        AppenderBase<ILoggingEvent> stalledBackend = new AppenderBase<>() {
+            @Override
+            protected void append(ILoggingEvent event) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                delivered.add(event);
+            }
+        };
+        stalledBackend.setContext(context);
+        stalledBackend.start();
+
+        MeteredAsyncAppender async = asyncAppender(16);
+        async.setDiscardingThreshold(4);
+        async.addAppender(stalledBackend);
+        async.start();
+        logger.addAppender(async);
+
+        Thread[] producers = new Thread[4];
+        for (int t = 0; t < producers.length; t++) {
+            producers[t] = new Thread(() -> {
+                for (int i = 0; i < 100; i++) {
+                    logger.info("filler {}", i);
+                    logger.error("important {}", i);
+                }
+            });
+            producers[t].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(async.getOverflowCount() > 0);
+
+        gate.countDown();
+        async.stop();
+        assertEquals(800, delivered.size() + async.getDiscardedCount() + async.getOverflowCount());
+    }
+
+    private MeteredAsyncAppender asyncAppender(int queueSize) {
+        MeteredAsyncAppender async = new MeteredAsyncAppender();
+        async.setContext(context);
+        async.setName("async-loki-test");
+        async.setQueueSize(queueSize);
+        async.setNeverBlock(true);
+        async.setMaxFlushTime(5000);
+        return async;
+    }
+}
@@ -0,0 +1,50 @@
+package sg.edu.nus.iss.d13revision.metrics;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = "management.tracing.sampling.probability=1.0")
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class LatencyMetricsTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testEndpointSloBuckets() throws Exception {
+        mockMvc.perform(get("/person/testRetrieve")).andExpect(status().isOk());
+        mockMvc.perform(get("/version")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                // per-endpoint buckets
+                .andExpect(content().string(containsString("uri=\"/person/testRetrieve\",le=\"0.01\"")))
+                .andExpect(content().string(not(containsString("uri=\"/person/testRetrieve\",le=\"0.025\""))))
+                // everything else gets the global SLO list, not the full percentiles histogram
+                .andExpect(content().string(containsString("uri=\"/version\",le=\"0.025\"")))
+                .andExpect(content().string(not(containsString("uri=\"/version\",le=\"0.001\""))));
+    }
+
+    @Test
+    public void testLatencyEndpointLinksTraces() throws Exception {
+        mockMvc.perform(delete("/actuator/latency")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/nations")).andExpect(status().isOk());
+        mockMvc.perform(get("/person/personList")).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/latency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.routes['GET /nations'].count").value(1))
+                .andExpect(jsonPath("$.routes['GET /nations'].exemplars[0].traceId").value(matchesPattern("[0-9a-f]{16,32}")))
+                .andExpect(jsonPath("$.routes['GET /person/personList'].count").value(1))
+                .andExpect(jsonPath("$.routes['GET /version']").doesNotExist());
+    }
+}
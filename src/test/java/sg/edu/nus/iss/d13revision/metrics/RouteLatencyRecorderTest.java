@@ -0,0 +1,55 @@
+package sg.edu.nus.iss.d13revision.metrics;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.iss.d13revision.metrics.RouteLatencyRecorder.RouteSummary;
+
+public class RouteLatencyRecorderTest {
+
+    @Test
+    public void testPercentilesAndExemplars() {
+        RouteLatencyRecorder recorder = new RouteLatencyRecorder();
+        for (int i = 1; i <= 1000; i++) {
+            recorder.record("GET /nations", i * 1_000_000L, null, null);
+        }
+        recorder.record("GET /nations", 2_000_000L, "trace-fast", "span-fast");
+        recorder.record("GET /nations", 900_000_000L, "trace-slow", "span-slow");
+
+        RouteSummary summary = recorder.summaries().get("GET /nations");
+        assertEquals(1002, summary.count());
+        assertEquals(500, summary.p50Ms(), 5);
+        assertEquals(990, summary.p99Ms(), 10);
+        assertEquals(2, summary.exemplars().size());
+        assertEquals("trace-slow", summary.exemplars().get(0).traceId());
+        assertEquals(900, summary.exemplars().get(0).latencyMs(), 1);
+        assertEquals("trace-fast", summary.exemplars().get(1).traceId());
+
+        // totals keep accumulating across reads
+        recorder.record("GET /nations", 1_000_000L, null, null);
+        assertEquals(1003, recorder.summaries().get("GET /nations").count());
+
+        recorder.reset();
+        RouteSummary cleared = recorder.summaries().get("GET /nations");
+        assertEquals(0, cleared.count());
+        assertTrue(cleared.exemplars().isEmpty());
+    }
+
+    @Test
+    public void testRouteCap() {
+        RouteLatencyRecorder recorder = new RouteLatencyRecorder();
+        recorder.maxRoutes = 2;
+        recorder.record("GET /a", 1000, null, null);
+        recorder.record("GET /b", 1000, null, null);
+        recorder.record("GET /c", 1000, null, null);
+        recorder.record("GET /a", 1000, null, null);
+
+        Map<String, RouteSummary> summaries = recorder.summaries();
+        assertEquals(2, summaries.size());
+        assertEquals(2, summaries.get("GET /a").count());
+        assertEquals(1, recorder.dropped());
+    }
+}
@@ -0,0 +1,77 @@
+package sg.edu.nus.iss.d13revision.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+
+@SpringBootTest(properties = { "management.tracing.sampling.probability=0.0",
+        "metrics.latency.slow-request-threshold-ms=0" })
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public class SlowRequestTracingTest {
+
+    private static final List<MutableSpan> reported = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class Spans {
+
+        @Bean
+        SpanHandler capture() {
+            return new SpanHandler() {
+                @Override
+                public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+                    reported.add(span);
+                    return true;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    public void testUnsampledSlowRequestIsTraced() throws Exception {
+        mockMvc.perform(delete("/actuator/latency")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/nations")).andExpect(status().isOk());
+
+        MutableSpan slow = reported.stream()
+                .filter(s -> "true".equals(s.tag("slow_request")) && "GET /nations".equals(s.tag("http.route")))
+                .findFirst()
+                .orElseThrow();
+        mockMvc.perform(get("/actuator/latency"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.routes['GET /nations'].exemplars[0].traceId").value(slow.traceId()));
+        assertThat(slow.tag("http.route"), is("GET /nations"));
+    }
+
+    @Test
+    public void testForcedTracesAreCappedPerRoute() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            mockMvc.perform(get("/currencies")).andExpect(status().isOk());
+        }
+
+        long forced = reported.stream()
+                .filter(s -> "true".equals(s.tag("slow_request")) && "GET /currencies".equals(s.tag("http.route")))
+                .count();
+        // one a second, and the loop may straddle a second boundary
+        assertThat(forced, is(both(greaterThan(0L)).and(lessThanOrEqualTo(2L))));
+    }
+}
@@ -0,0 +1,78 @@
+package sg.edu.nus.iss.d13revision.profiling;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+@SpringBootTest(properties = "management.endpoint.jfr.access=unrestricted")
+@AutoConfigureMockMvc
+public class FlightRecorderEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FlightRecorderEndpoint endpoint;
+
+    @AfterEach
+    public void tearDown() {
+        endpoint.discard();
+    }
+
+    @Test
+    public void testRecordingCapturesCustomEvents(@TempDir Path dir) throws Exception {
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{\"duration\":\"1m\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("RUNNING"));
+        mockMvc.perform(post("/actuator/jfr").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isTooManyRequests());
+
+        mockMvc.perform(get("/nations").param("fields", "flag")).andExpect(status().isOk());
+        mockMvc.perform(get("/currencies")).andExpect(status().isOk());
+        mockMvc.perform(post("/person/addPerson").param("firstName", "Jfr").param("lastName", "Event"))
+                .andExpect(status().is3xxRedirection());
+
+        byte[] jfr = mockMvc.perform(delete("/actuator/jfr"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+        Path file = dir.resolve("recording.jfr");
+        Files.write(file, jfr);
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+
+        RecordedEvent nations = events.stream()
+                .filter(e -> e.getEventType().getName().equals("sg.edu.nus.iss.d13revision.ReferenceData"))
+                .filter(e -> "nations".equals(e.getString("dataset")))
+                .findFirst().orElseThrow();
+        assertEquals(10, nations.getInt("records"));
+        assertEquals("flag", nations.getString("fields"));
+        assertTrue(events.stream()
+                .filter(e -> e.getEventType().getName().equals("sg.edu.nus.iss.d13revision.PersonStore"))
+                .anyMatch(e -> "add".equals(e.getString("operation")) && e.getInt("persons") == 1));
+
+        mockMvc.perform(get("/actuator/jfr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.state").value("NONE"));
+    }
+
+    @Test
+    public void testStopWithoutRecording() throws Exception {
+        mockMvc.perform(delete("/actuator/jfr"))
+                .andExpect(status().isNotFound());
+    }
+}
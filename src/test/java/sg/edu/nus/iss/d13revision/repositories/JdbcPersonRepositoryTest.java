@@ -0,0 +1,81 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:persons-it;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=64")
+@AutoConfigureMockMvc
+@ActiveProfiles("jdbc")
+public class JdbcPersonRepositoryTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private JdbcPersonRepository backend;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void testJdbcBackendSelected() {
+        assert repository instanceof WriteBehindPersonRepository;
+        assert dataSource instanceof HikariDataSource;
+        assert "person-pool".equals(((HikariDataSource) dataSource).getPoolName());
+    }
+
+    @Test
+    public void testAddThroughController() throws Exception {
+        mockMvc.perform(post("/person/addPerson")
+                .param("firstName", "Edsger")
+                .param("lastName", "Dijkstra"))
+                .andExpect(status().is3xxRedirection());
+
+        mockMvc.perform(get("/person/testRetrieve"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].lastName", hasItem("Dijkstra")));
+
+        assert repository.findByLastName("Dijkstra").size() == 1;
+
+        ((WriteBehindPersonRepository) repository).flush();
+        assert backend.findByLastName("Dijkstra").size() == 1;
+    }
+
+    @Test
+    public void testOnlyClashingIdsAreRedrawn() {
+        Person existing = backend.snapshot().persons().get(0);
+        List<Person> batch = List.of(new Person("a0000001", "Alan", "Turing"),
+                new Person(existing.getId(), "Grace", "Hopper"),
+                new Person("a0000002", "Ada", "Lovelace"));
+
+        Map<?, ?> redrawn = ReflectionTestUtils.invokeMethod(backend, "insertRedrawing", batch, new HashSet<String>());
+
+        assert redrawn.size() == 1 && redrawn.containsKey(existing.getId()) : redrawn;
+        assert backend.findById("a0000001").isPresent();
+        assert backend.findById("a0000002").isPresent();
+        assert backend.findById((String) redrawn.get(existing.getId())).orElseThrow().getLastName().equals("Hopper");
+        assert backend.findById(existing.getId()).orElseThrow().getLastName().equals(existing.getLastName());
+    }
+}
@@ -0,0 +1,96 @@
+package sg.edu.nus.iss.d13revision.repositories;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+
+/** The same behaviour from both backends. */
+public class PersonRepositoryTest {
+
+    static PersonRepository create(String backend) {
+        if ("memory".equals(backend)) {
+            return new InMemoryPersonRepository();
+        }
+        if ("write-behind".equals(backend)) {
+            WriteBehindPersonRepository repository = new WriteBehindPersonRepository(
+                    (JdbcPersonRepository) create("jdbc"));
+            repository.start();
+            return repository;
+        }
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcPersonRepository repository = new JdbcPersonRepository(new JdbcTemplate(ds),
+                new TransactionTemplate(new DataSourceTransactionManager(ds)));
+        repository.init();
+        return repository;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "memory", "jdbc", "write-behind" })
+    public void testSeededAndFindable(String backend) {
+        PersonRepository repository = create(backend);
+
+        List<Person> persons = repository.snapshot().persons();
+        assertEquals(2, persons.size());
+        assertEquals("Mark", persons.get(0).getFirstName());
+        assertEquals(0, repository.version());
+
+        String id = persons.get(1).getId();
+        assertEquals("Musk", repository.findById(id).orElseThrow().getLastName());
+        assertTrue(repository.findById("nobody").isEmpty());
+        assertEquals(List.of(id), repository.findByLastName("Musk").stream().map(Person::getId).toList());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "memory", "jdbc", "write-behind" })
+    public void testMutations(String backend) {
+        PersonRepository repository = create(backend);
+        Person mark = repository.snapshot().persons().get(0);
+
+        repository.apply(Kind.ADD, new Person("Grace", "Hopper"));
+        repository.apply(Kind.UPDATE, new Person(mark.getId(), "Mark", "Z"));
+        repository.apply(Kind.REMOVE, repository.findByLastName("Musk").get(0));
+
+        List<Person> persons = repository.snapshot().persons();
+        assertEquals(List.of("Z", "Hopper"), persons.stream().map(Person::getLastName).toList());
+        assertEquals(mark.getId(), persons.get(0).getId());
+        assertEquals(3, repository.version());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "memory", "jdbc", "write-behind" })
+    public void testBatches(String backend) {
+        PersonRepository repository = create(backend);
+
+        repository.addAll(IntStream.range(0, 1200).mapToObj(i -> new Person("F" + i, "L" + (i % 10))).toList());
+        assertEquals(1202, repository.snapshot().size());
+        assertEquals(120, repository.findByLastName("L3").size());
+        assertEquals(1200, repository.version());
+
+        PersonSnapshot before = repository.snapshot();
+        Person first = before.persons().get(2);
+        repository.applyAll(List.of(
+                PersonMutation.of(Kind.ADD, new Person("A", "Batch")),
+                PersonMutation.of(Kind.REMOVE, first),
+                PersonMutation.of(Kind.ADD, new Person("B", "Batch"))));
+
+        assertEquals(1202, before.size());
+        assertEquals(1203, repository.snapshot().size());
+        assertEquals(2, repository.findByLastName("Batch").size());
+        assertTrue(repository.findById(first.getId()).isEmpty());
+        assertEquals(1203, repository.version());
+        assertSame(repository.snapshot(), repository.snapshot());
+    }
+}
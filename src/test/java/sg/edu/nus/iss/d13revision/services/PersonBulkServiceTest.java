@@ -0,0 +1,126 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.services.PersonBulkService.Format;
+import sg.edu.nus.iss.d13revision.services.PersonBulkService.ImportResult;
+
+public class PersonBulkServiceTest {
+
+    private PersonBulkService bulk;
+
+    @BeforeEach
+    public void setUp() {
+        bulk = new PersonBulkService();
+        bulk.perSvc = new PersonService();
+        bulk.objectMapper = new ObjectMapper();
+        bulk.chunkSize = 1000;
+        bulk.parallelism = 4;
+        bulk.maxReportedErrors = 5;
+        bulk.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bulk.stop();
+    }
+
+    /** Generates rows on the fly so the upload itself is never held in memory. */
+    private static InputStream rows(int count) {
+        return new InputStream() {
+            private int row = -1;
+            private byte[] current = "firstName,lastName\n".getBytes(StandardCharsets.US_ASCII);
+            private int pos;
+
+            @Override
+            public int read() {
+                if (pos == current.length) {
+                    if (++row >= count) {
+                        return -1;
+                    }
+                    // every 100th row has no last name
+                    String line = "F" + row + "," + (row % 100 == 99 ? "" : "L" + row) + "\n";
+                    current = line.getBytes(StandardCharsets.US_ASCII);
+                    pos = 0;
+                }
+                return current[pos++];
+            }
+        };
+    }
+
+    @Test
+    public void testLargeImportKeepsOrderAndCountsRejects() throws IOException {
+        ImportResult result = bulk.importFrom(rows(50_000), Format.CSV);
+
+        assertEquals(49_500, result.imported());
+        assertEquals(500, result.rejected());
+        assertEquals(5, result.errors().size());
+        // the header is line 1, so row 99 sits on line 101
+        assertEquals(101, result.errors().get(0).line());
+
+        List<Person> persons = bulk.perSvc.getPersons();
+        assertEquals(2 + 49_500, persons.size());
+        assertEquals("F0", persons.get(2).getFirstName());
+        assertEquals("F49998", persons.get(persons.size() - 1).getFirstName());
+    }
+
+    @Test
+    public void testExportRoundTrips() throws IOException {
+        bulk.perSvc.addPerson(new Person("Grace", "Hopper, \"Amazing\"\r\nRear Admiral"));
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        bulk.exportTo(csv, Format.CSV);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        bulk.exportTo(ndjson, Format.NDJSON);
+
+        PersonBulkService other = new PersonBulkService();
+        other.perSvc = new PersonService();
+        other.objectMapper = new ObjectMapper();
+        other.chunkSize = 2;
+        other.parallelism = 2;
+        other.start();
+        try {
+            assertEquals(3, other.importFrom(new ByteArrayInputStream(csv.toByteArray()), Format.CSV).imported());
+            assertEquals(3, other.importFrom(new ByteArrayInputStream(ndjson.toByteArray()), Format.NDJSON).imported());
+        } finally {
+            other.stop();
+        }
+
+        List<String> lastNames = other.perSvc.getPersons().stream().map(Person::getLastName).toList();
+        assertEquals(8, lastNames.size());
+        assertEquals("Hopper, \"Amazing\"\r\nRear Admiral", lastNames.get(4));
+        assertEquals("Hopper, \"Amazing\"\r\nRear Admiral", lastNames.get(7));
+    }
+
+    @Test
+    public void testOverlongRowIsRejectedAndImportCarriesOn() throws IOException {
+        bulk.maxRecordLength = 64;
+        String csv = "firstName,lastName\n"
+                + "Ada,Lovelace\n"
+                // an unbalanced quote must not swallow the rest of the upload either
+                + "\"" + "x".repeat(100) + ",Long\n"
+                + "Alan,Turing\n";
+
+        ImportResult result = bulk.importFrom(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                Format.CSV);
+
+        assertEquals(2, result.imported());
+        assertEquals(1, result.rejected());
+        assertEquals(3, result.errors().get(0).line());
+        assertEquals("Row longer than 64 characters", result.errors().get(0).reason());
+    }
+}
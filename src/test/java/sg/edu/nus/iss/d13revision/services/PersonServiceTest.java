@@ -0,0 +1,143 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.InMemoryPersonRepository;
+import sg.edu.nus.iss.d13revision.repositories.PersonSnapshot;
+
+public class PersonServiceTest {
+
+    private PersonService service;
+
+    @AfterEach
+    public void tearDown() {
+        if (service != null) {
+            service.stopWriter();
+        }
+    }
+
+    private PersonService singleWriterService() {
+        PersonService svc = new PersonService();
+        ReflectionTestUtils.setField(svc, "singleWriter", true);
+        ReflectionTestUtils.setField(svc, "ringCapacity", 64);
+        ReflectionTestUtils.setField(svc, "batchSize", 16);
+        svc.startWriter();
+        return svc;
+    }
+
+    @Test
+    public void testAddUpdateRemove() {
+        service = new PersonService();
+        long v0 = service.getVersion();
+
+        service.addPerson(new Person("Ada", "Lovelace"));
+        Person ada = service.getPersons().stream()
+                .filter(p -> p.getLastName().equals("Lovelace")).findAny().orElseThrow();
+        service.updatePerson(new Person(ada.getId(), "Augusta", "Lovelace"));
+        assertEquals("Augusta", service.getPersons().stream()
+                .filter(p -> p.getId().equals(ada.getId())).findAny().orElseThrow().getFirstName());
+
+        service.removePerson(ada);
+        assertEquals(2, service.getPersons().size());
+        assertEquals(v0 + 3, service.getVersion());
+    }
+
+    @Test
+    public void testSingleWriterAppliesBeforeCompleting() {
+        service = singleWriterService();
+
+        service.addPerson(new Person("Grace", "Hopper"));
+
+        assertEquals(3, service.getPersons().size());
+        assertEquals(1, service.getVersion());
+        assertThrows(UnsupportedOperationException.class, () -> service.getPersons().clear());
+    }
+
+    @Test
+    public void testSingleWriterConcurrentBurst() throws Exception {
+        service = singleWriterService();
+        int threads = 8;
+        int perThread = 250;
+
+        List<Thread> writers = new ArrayList<>();
+        List<CompletableFuture<Void>> done = java.util.Collections.synchronizedList(new ArrayList<>());
+        for (int t = 0; t < threads; t++) {
+            int id = t;
+            Thread w = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    done.add(service.addPersonAsync(new Person("T" + id, "N" + i)));
+                }
+            });
+            w.start();
+            writers.add(w);
+        }
+        for (Thread w : writers) {
+            w.join();
+        }
+        CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).join();
+
+        assertEquals(2 + threads * perThread, service.getPersons().size());
+        assertEquals(threads * perThread, service.getVersion());
+    }
+
+    @Test
+    public void testReadersHoldAConsistentSnapshot() {
+        service = new PersonService();
+        List<Person> before = service.getPersons();
+        PersonSnapshot v0 = service.snapshot();
+
+        service.addPerson(new Person("Linus", "Torvalds"));
+
+        assertEquals(2, before.size());
+        assertEquals(2, v0.size());
+        assertEquals(3, service.getPersons().size());
+        assertThrows(UnsupportedOperationException.class, () -> service.getPersons().clear());
+    }
+
+    @Test
+    public void testUpdateKeepsPosition() {
+        service = new PersonService();
+        Person mark = service.getPersons().get(0);
+
+        service.updatePerson(new Person(mark.getId(), "Mark", "Z"));
+
+        List<Person> after = service.getPersons();
+        assertEquals(2, after.size());
+        assertEquals(mark.getId(), after.get(0).getId());
+        assertEquals("Z", after.get(0).getLastName());
+        assertEquals("Z", service.snapshot().get(mark.getId()).getLastName());
+    }
+
+    @Test
+    public void testSnapshotAtVersion() {
+        InMemoryPersonRepository repository = new InMemoryPersonRepository();
+        ReflectionTestUtils.setField(repository, "retainedVersions", 4);
+        service = new PersonService(repository);
+
+        service.addPerson(new Person("A", "One"));
+        long pinned = service.getVersion();
+        for (int i = 0; i < 3; i++) {
+            service.addPerson(new Person("B", "Two" + i));
+        }
+
+        PersonSnapshot old = service.snapshotAt(pinned).orElseThrow();
+        assertEquals(3, old.size());
+        assertEquals(List.of("One"), old.page(2, 10).stream().map(Person::getLastName).toList());
+        assertTrue(old.page(10, 10).isEmpty());
+
+        for (int i = 0; i < 4; i++) {
+            service.addPerson(new Person("C", "Three" + i));
+        }
+        assertTrue(service.snapshotAt(pinned).isEmpty());
+        assertEquals(service.snapshot(), service.snapshotAt(service.getVersion()).orElseThrow());
+    }
+}
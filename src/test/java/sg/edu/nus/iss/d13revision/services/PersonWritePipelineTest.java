@@ -0,0 +1,59 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import sg.edu.nus.iss.d13revision.models.Person;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation;
+import sg.edu.nus.iss.d13revision.repositories.PersonMutation.Kind;
+
+public class PersonWritePipelineTest {
+
+    @Test
+    public void testSubmitRacingCloseNeverHangs() throws Exception {
+        for (int round = 0; round < 200; round++) {
+            PersonWritePipeline pipeline = new PersonWritePipeline(64, 16, batch -> {
+            });
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            Thread submitter = new Thread(() -> {
+                for (int i = 0; i < 50; i++) {
+                    futures.add(pipeline.submit(PersonMutation.of(Kind.ADD, new Person("Ada", "Lovelace"))));
+                }
+            });
+            submitter.start();
+            pipeline.close();
+            submitter.join();
+
+            for (CompletableFuture<Void> future : futures) {
+                // applied before the stop or failed after it, but always completed
+                future.handle((v, e) -> null).get(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    public void testErrorInApplierFailsEverythingQueued() throws Exception {
+        PersonWritePipeline pipeline = new PersonWritePipeline(64, 1, batch -> {
+            throw new OutOfMemoryError("simulated");
+        });
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(pipeline.submit(PersonMutation.of(Kind.ADD, new Person("Ada", "Lovelace"))));
+        }
+
+        for (CompletableFuture<Void> future : futures) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof OutOfMemoryError || e.getCause() instanceof IllegalStateException);
+        }
+        CompletableFuture<Void> late = pipeline.submit(PersonMutation.of(Kind.ADD, new Person("Late", "Comer")));
+        assertThrows(ExecutionException.class, () -> late.get(5, TimeUnit.SECONDS));
+        pipeline.close();
+    }
+}
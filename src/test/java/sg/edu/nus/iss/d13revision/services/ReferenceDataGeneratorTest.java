@@ -0,0 +1,74 @@
+package sg.edu.nus.iss.d13revision.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.github.javafaker.Faker;
+
+public class ReferenceDataGeneratorTest {
+
+    private final ReferenceDataGenerator generator = new ReferenceDataGenerator();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private Set<String> values(JsonNode records, String field) {
+        Set<String> values = new HashSet<>();
+        records.forEach(r -> values.add(r.get(field).asText()));
+        return values;
+    }
+
+    @Test
+    public void testNationsMatchFakerData() throws Exception {
+        JsonNode nations = mapper.readTree(mapper.writeValueAsBytes(generator.nations(5000, null)));
+        assertEquals(5000, nations.size());
+
+        List<String> names = List.of("nationality", "capitalCity", "flag", "language");
+        nations.forEach(n -> {
+            List<String> fields = new ArrayList<>();
+            n.fieldNames().forEachRemaining(fields::add);
+            assertEquals(names, fields);
+        });
+
+        // every Faker value should be one the tables can produce
+        Faker faker = new Faker();
+        Set<String> flags = values(nations, "flag");
+        Set<String> languages = values(nations, "language");
+        for (int i = 0; i < 50; i++) {
+            assertTrue(flags.contains(faker.nation().flag()));
+            assertTrue(languages.contains(faker.nation().language()));
+        }
+        assertTrue(values(nations, "capitalCity").contains("Singapore"));
+    }
+
+    @Test
+    public void testCurrenciesAndProjection() throws Exception {
+        JsonNode currencies = mapper.readTree(mapper.writeValueAsBytes(generator.currencies(2000, Set.of("code"))));
+        assertEquals(2000, currencies.size());
+        currencies.forEach(c -> {
+            assertEquals(1, c.size());
+            assertTrue(c.get("code").asText().matches("[A-Z]{3}"));
+        });
+
+        Faker faker = new Faker();
+        Set<String> codes = values(currencies, "code");
+        for (int i = 0; i < 50; i++) {
+            assertTrue(codes.contains(faker.currency().code()));
+        }
+    }
+
+    @Test
+    public void testBinaryFormats() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+        JsonNode nations = cbor.readTree(cbor.writeValueAsBytes(generator.nations(10, Set.of("flag", "language"))));
+        assertEquals(10, nations.size());
+        assertEquals(2, nations.get(0).size());
+    }
+}
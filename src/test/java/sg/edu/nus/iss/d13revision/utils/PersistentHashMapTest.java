@@ -0,0 +1,73 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PersistentHashMapTest {
+
+    // equal hash codes for every key with the same value of key % 4
+    record Colliding(int key) {
+        @Override
+        public int hashCode() {
+            return key % 4;
+        }
+    }
+
+    @Test
+    public void testOlderVersionsAreUntouched() {
+        PersistentHashMap<String, Integer> v0 = PersistentHashMap.empty();
+        PersistentHashMap<String, Integer> v1 = v0.put("a", 1);
+        PersistentHashMap<String, Integer> v2 = v1.put("a", 2).put("b", 3);
+        PersistentHashMap<String, Integer> v3 = v2.remove("a");
+
+        assertTrue(v0.isEmpty());
+        assertEquals(1, v1.get("a"));
+        assertEquals(2, v2.get("a"));
+        assertEquals(2, v2.size());
+        assertNull(v3.get("a"));
+        assertEquals(1, v3.size());
+        assertSame(v3, v3.remove("missing"));
+        assertSame(v1, v1.put("a", v1.get("a")));
+    }
+
+    @Test
+    public void testMatchesHashMapUnderRandomOperations() {
+        checkAgainstHashMap(new Random(42), 5_000, 20_000, Integer::valueOf);
+    }
+
+    @Test
+    public void testHashCollisions() {
+        checkAgainstHashMap(new Random(7), 200, 5_000, Colliding::new);
+    }
+
+    private static <K> void checkAgainstHashMap(Random random, int keySpace, int ops,
+            java.util.function.IntFunction<K> keys) {
+        Map<K, Integer> expected = new HashMap<>();
+        PersistentHashMap<K, Integer> actual = PersistentHashMap.empty();
+        for (int i = 0; i < ops; i++) {
+            K key = keys.apply(random.nextInt(keySpace));
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                actual = actual.remove(key);
+            } else {
+                expected.put(key, i);
+                actual = actual.put(key, i);
+            }
+            assertEquals(expected.size(), actual.size());
+        }
+
+        for (int k = 0; k < keySpace; k++) {
+            K key = keys.apply(k);
+            assertEquals(expected.get(key), actual.get(key));
+            assertEquals(expected.containsKey(key), actual.containsKey(key));
+        }
+        Map<K, Integer> visited = new HashMap<>();
+        actual.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+}
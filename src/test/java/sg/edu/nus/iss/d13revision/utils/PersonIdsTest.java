@@ -0,0 +1,22 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class PersonIdsTest {
+
+    @Test
+    public void testDrawsAgainWhileTaken() {
+        Set<String> offered = new HashSet<>();
+        // the first three ids drawn count as taken
+        String id = PersonIds.fresh(candidate -> offered.add(candidate) && offered.size() <= 3);
+
+        assertEquals(4, offered.size());
+        assertTrue(offered.contains(id));
+        assertTrue(id.matches("[0-9a-f]{8}"));
+    }
+}
@@ -0,0 +1,61 @@
+package sg.edu.nus.iss.d13revision.utils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.CompletionException;
+
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightTest {
+
+    @Test
+    public void testFollowersShareLeaderResult() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+
+        var leader = flights.join("k");
+        var follower = flights.join("k");
+        var other = flights.join("other");
+
+        assertTrue(leader.isLeader());
+        assertFalse(follower.isLeader());
+        assertTrue(other.isLeader());
+        assertFalse(follower.result().isDone());
+
+        leader.complete("value");
+
+        assertEquals("value", follower.result().join());
+        assertEquals(1, flights.inFlightCount());
+    }
+
+    @Test
+    public void testLeaderFailurePropagatesToFollowers() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        var leader = flights.join("k");
+        var follower = flights.join("k");
+
+        leader.fail(new IllegalStateException("boom"));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> follower.result().join());
+        assertEquals("boom", e.getCause().getMessage());
+    }
+
+    @Test
+    public void testNewFlightStartsAfterLeaderFinishes() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        flights.join("k").complete("first");
+
+        var next = flights.join("k");
+
+        assertTrue(next.isLeader());
+        assertEquals(1, flights.inFlightCount());
+    }
+
+    @Test
+    public void testOnlyLeaderMayComplete() {
+        SingleFlight<String, String> flights = new SingleFlight<>();
+        flights.join("k");
+        var follower = flights.join("k");
+
+        assertThrows(IllegalStateException.class, () -> follower.complete("nope"));
+    }
+}